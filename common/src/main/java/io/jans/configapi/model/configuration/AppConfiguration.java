@@ -3,6 +3,7 @@ package io.jans.configapi.model.configuration;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.jans.as.model.configuration.Configuration;
 import io.jans.as.model.configuration.CorsConfigurationFilter;
+import io.jans.configapi.util.ApiConstants;
 import java.util.List;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -24,6 +25,36 @@ public class AppConfiguration implements Configuration {
 
     private List<CorsConfigurationFilter> corsConfigurationFilters;
 
+    private int jwksCacheDefaultTtlInSeconds = 3600;
+    private int jwksCacheMinRefreshIntervalInSeconds = 30;
+    private int jwksCacheMinTtlInSeconds = 60;
+    private int jwksCacheMaxFailureBackoffInSeconds = 300;
+    private int openIdConfigurationCacheTtlInSeconds = 3600;
+    private int openIdConfigurationCacheMaxStaleInSeconds = 86400;
+    private int verifiedTokenCacheMaxSize = 10000;
+    private int verifiedTokenCacheMaxTtlInSeconds = 300;
+    private int connectionPoolMaxTotal = ApiConstants.CONNECTION_POOL_MAX_TOTAL;
+    private int connectionPoolDefaultMaxPerRoute = ApiConstants.CONNECTION_POOL_DEFAULT_MAX_PER_ROUTE;
+    private int connectionPoolValidateAfterInactivity = ApiConstants.CONNECTION_POOL_VALIDATE_AFTER_INACTIVITY;
+    private int introspectionCacheMaxSize = 10000;
+    private int introspectionCacheMaxTtlInSeconds = 300;
+    private int introspectionCacheNegativeTtlInSeconds = 10;
+    private int configurationCacheRevisionCheckIntervalInSeconds = 10;
+    private boolean accessLogEnabled = true;
+    private double accessLogSamplingRate = 1.0;
+    private int streamingChunkSize = 100;
+    private int bulkMaxItems = 10000;
+    private int bulkParallelism = 4;
+    private boolean readAfterWriteEnabled = true;
+    private int secretDecryptionParallelism = 4;
+    private int configurationResponseCacheMaxAgeInSeconds = 0;
+    private boolean compressionEnabled = true;
+    private int compressionMinSize = 1024;
+    private int compressionLevel = 6;
+    private int clientCacheMaxSize = 1000;
+    private int clientCacheTtlInSeconds = 60;
+    private int apiProtectionCacheRefreshInSeconds = 3600;
+
     public List<String> getApiApprovedIssuer() {
         return apiApprovedIssuer;
     }
@@ -119,5 +150,237 @@ public class AppConfiguration implements Configuration {
     public void setCorsConfigurationFilters(List<CorsConfigurationFilter> corsConfigurationFilters) {
         this.corsConfigurationFilters = corsConfigurationFilters;
     }
-       
+
+    public int getJwksCacheDefaultTtlInSeconds() {
+        return jwksCacheDefaultTtlInSeconds;
+    }
+
+    public void setJwksCacheDefaultTtlInSeconds(int jwksCacheDefaultTtlInSeconds) {
+        this.jwksCacheDefaultTtlInSeconds = jwksCacheDefaultTtlInSeconds;
+    }
+
+    public int getJwksCacheMinRefreshIntervalInSeconds() {
+        return jwksCacheMinRefreshIntervalInSeconds;
+    }
+
+    public void setJwksCacheMinRefreshIntervalInSeconds(int jwksCacheMinRefreshIntervalInSeconds) {
+        this.jwksCacheMinRefreshIntervalInSeconds = jwksCacheMinRefreshIntervalInSeconds;
+    }
+
+    public int getJwksCacheMinTtlInSeconds() {
+        return jwksCacheMinTtlInSeconds;
+    }
+
+    public void setJwksCacheMinTtlInSeconds(int jwksCacheMinTtlInSeconds) {
+        this.jwksCacheMinTtlInSeconds = jwksCacheMinTtlInSeconds;
+    }
+
+    public int getJwksCacheMaxFailureBackoffInSeconds() {
+        return jwksCacheMaxFailureBackoffInSeconds;
+    }
+
+    public void setJwksCacheMaxFailureBackoffInSeconds(int jwksCacheMaxFailureBackoffInSeconds) {
+        this.jwksCacheMaxFailureBackoffInSeconds = jwksCacheMaxFailureBackoffInSeconds;
+    }
+
+    public int getOpenIdConfigurationCacheTtlInSeconds() {
+        return openIdConfigurationCacheTtlInSeconds;
+    }
+
+    public void setOpenIdConfigurationCacheTtlInSeconds(int openIdConfigurationCacheTtlInSeconds) {
+        this.openIdConfigurationCacheTtlInSeconds = openIdConfigurationCacheTtlInSeconds;
+    }
+
+    public int getOpenIdConfigurationCacheMaxStaleInSeconds() {
+        return openIdConfigurationCacheMaxStaleInSeconds;
+    }
+
+    public void setOpenIdConfigurationCacheMaxStaleInSeconds(int openIdConfigurationCacheMaxStaleInSeconds) {
+        this.openIdConfigurationCacheMaxStaleInSeconds = openIdConfigurationCacheMaxStaleInSeconds;
+    }
+
+    public int getVerifiedTokenCacheMaxSize() {
+        return verifiedTokenCacheMaxSize;
+    }
+
+    public void setVerifiedTokenCacheMaxSize(int verifiedTokenCacheMaxSize) {
+        this.verifiedTokenCacheMaxSize = verifiedTokenCacheMaxSize;
+    }
+
+    public int getVerifiedTokenCacheMaxTtlInSeconds() {
+        return verifiedTokenCacheMaxTtlInSeconds;
+    }
+
+    public void setVerifiedTokenCacheMaxTtlInSeconds(int verifiedTokenCacheMaxTtlInSeconds) {
+        this.verifiedTokenCacheMaxTtlInSeconds = verifiedTokenCacheMaxTtlInSeconds;
+    }
+
+    public int getConnectionPoolMaxTotal() {
+        return connectionPoolMaxTotal;
+    }
+
+    public void setConnectionPoolMaxTotal(int connectionPoolMaxTotal) {
+        this.connectionPoolMaxTotal = connectionPoolMaxTotal;
+    }
+
+    public int getConnectionPoolDefaultMaxPerRoute() {
+        return connectionPoolDefaultMaxPerRoute;
+    }
+
+    public void setConnectionPoolDefaultMaxPerRoute(int connectionPoolDefaultMaxPerRoute) {
+        this.connectionPoolDefaultMaxPerRoute = connectionPoolDefaultMaxPerRoute;
+    }
+
+    public int getConnectionPoolValidateAfterInactivity() {
+        return connectionPoolValidateAfterInactivity;
+    }
+
+    public void setConnectionPoolValidateAfterInactivity(int connectionPoolValidateAfterInactivity) {
+        this.connectionPoolValidateAfterInactivity = connectionPoolValidateAfterInactivity;
+    }
+
+    public int getIntrospectionCacheMaxSize() {
+        return introspectionCacheMaxSize;
+    }
+
+    public void setIntrospectionCacheMaxSize(int introspectionCacheMaxSize) {
+        this.introspectionCacheMaxSize = introspectionCacheMaxSize;
+    }
+
+    public int getIntrospectionCacheMaxTtlInSeconds() {
+        return introspectionCacheMaxTtlInSeconds;
+    }
+
+    public void setIntrospectionCacheMaxTtlInSeconds(int introspectionCacheMaxTtlInSeconds) {
+        this.introspectionCacheMaxTtlInSeconds = introspectionCacheMaxTtlInSeconds;
+    }
+
+    public int getIntrospectionCacheNegativeTtlInSeconds() {
+        return introspectionCacheNegativeTtlInSeconds;
+    }
+
+    public void setIntrospectionCacheNegativeTtlInSeconds(int introspectionCacheNegativeTtlInSeconds) {
+        this.introspectionCacheNegativeTtlInSeconds = introspectionCacheNegativeTtlInSeconds;
+    }
+
+    public int getConfigurationCacheRevisionCheckIntervalInSeconds() {
+        return configurationCacheRevisionCheckIntervalInSeconds;
+    }
+
+    public void setConfigurationCacheRevisionCheckIntervalInSeconds(int configurationCacheRevisionCheckIntervalInSeconds) {
+        this.configurationCacheRevisionCheckIntervalInSeconds = configurationCacheRevisionCheckIntervalInSeconds;
+    }
+
+    public boolean isAccessLogEnabled() {
+        return accessLogEnabled;
+    }
+
+    public void setAccessLogEnabled(boolean accessLogEnabled) {
+        this.accessLogEnabled = accessLogEnabled;
+    }
+
+    public double getAccessLogSamplingRate() {
+        return accessLogSamplingRate;
+    }
+
+    public void setAccessLogSamplingRate(double accessLogSamplingRate) {
+        this.accessLogSamplingRate = accessLogSamplingRate;
+    }
+
+    public int getStreamingChunkSize() {
+        return streamingChunkSize;
+    }
+
+    public void setStreamingChunkSize(int streamingChunkSize) {
+        this.streamingChunkSize = streamingChunkSize;
+    }
+
+    public int getBulkMaxItems() {
+        return bulkMaxItems;
+    }
+
+    public void setBulkMaxItems(int bulkMaxItems) {
+        this.bulkMaxItems = bulkMaxItems;
+    }
+
+    public int getBulkParallelism() {
+        return bulkParallelism;
+    }
+
+    public void setBulkParallelism(int bulkParallelism) {
+        this.bulkParallelism = bulkParallelism;
+    }
+
+    public boolean isReadAfterWriteEnabled() {
+        return readAfterWriteEnabled;
+    }
+
+    public void setReadAfterWriteEnabled(boolean readAfterWriteEnabled) {
+        this.readAfterWriteEnabled = readAfterWriteEnabled;
+    }
+
+    public int getSecretDecryptionParallelism() {
+        return secretDecryptionParallelism;
+    }
+
+    public void setSecretDecryptionParallelism(int secretDecryptionParallelism) {
+        this.secretDecryptionParallelism = secretDecryptionParallelism;
+    }
+
+    public int getConfigurationResponseCacheMaxAgeInSeconds() {
+        return configurationResponseCacheMaxAgeInSeconds;
+    }
+
+    public void setConfigurationResponseCacheMaxAgeInSeconds(int configurationResponseCacheMaxAgeInSeconds) {
+        this.configurationResponseCacheMaxAgeInSeconds = configurationResponseCacheMaxAgeInSeconds;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public int getCompressionMinSize() {
+        return compressionMinSize;
+    }
+
+    public void setCompressionMinSize(int compressionMinSize) {
+        this.compressionMinSize = compressionMinSize;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public int getClientCacheMaxSize() {
+        return clientCacheMaxSize;
+    }
+
+    public void setClientCacheMaxSize(int clientCacheMaxSize) {
+        this.clientCacheMaxSize = clientCacheMaxSize;
+    }
+
+    public int getClientCacheTtlInSeconds() {
+        return clientCacheTtlInSeconds;
+    }
+
+    public void setClientCacheTtlInSeconds(int clientCacheTtlInSeconds) {
+        this.clientCacheTtlInSeconds = clientCacheTtlInSeconds;
+    }
+
+    public int getApiProtectionCacheRefreshInSeconds() {
+        return apiProtectionCacheRefreshInSeconds;
+    }
+
+    public void setApiProtectionCacheRefreshInSeconds(int apiProtectionCacheRefreshInSeconds) {
+        this.apiProtectionCacheRefreshInSeconds = apiProtectionCacheRefreshInSeconds;
+    }
+
 }
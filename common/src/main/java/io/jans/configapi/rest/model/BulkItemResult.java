@@ -0,0 +1,75 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.rest.model;
+
+/**
+ * Outcome of one item of a bulk request. <code>index</code> is the position
+ * of the item in the request and <code>status</code> the HTTP status the
+ * equivalent single-item call would have returned.
+ */
+public class BulkItemResult {
+
+    private int index;
+    private String id;
+    private int status;
+    private String error;
+
+    public BulkItemResult() {
+    }
+
+    public BulkItemResult(int index, String id, int status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public static BulkItemResult success(int index, String id, int status) {
+        return new BulkItemResult(index, id, status, null);
+    }
+
+    public static BulkItemResult failure(int index, String id, int status, String error) {
+        return new BulkItemResult(index, id, status, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkItemResult [index=" + index + ", id=" + id + ", status=" + status + ", error=" + error + "]";
+    }
+}
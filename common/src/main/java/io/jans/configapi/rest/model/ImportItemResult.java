@@ -0,0 +1,55 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.rest.model;
+
+import java.util.List;
+
+/**
+ * Outcome of one item of an import. <code>action</code> tells whether the
+ * item creates an entry, updates one or leaves it unchanged, and
+ * <code>changes</code> lists the properties an update modifies.
+ */
+public class ImportItemResult extends BulkItemResult {
+
+    public static final String CREATE = "create";
+    public static final String UPDATE = "update";
+    public static final String UNCHANGED = "unchanged";
+
+    private String action;
+    private List<String> changes;
+
+    public ImportItemResult() {
+    }
+
+    public ImportItemResult(int index, String id, int status, String action, List<String> changes) {
+        super(index, id, status, null);
+        this.action = action;
+        this.changes = changes;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public List<String> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<String> changes) {
+        this.changes = changes;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportItemResult [index=" + getIndex() + ", id=" + getId() + ", status=" + getStatus() + ", action="
+                + action + ", changes=" + changes + ", error=" + getError() + "]";
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.rest.model;
+
+import java.util.List;
+
+/**
+ * One page of a list endpoint. <code>next</code> is the opaque cursor to pass
+ * back to get the following page and is null on the last page.
+ * <code>totalEntriesCount</code> is only given on the first page.
+ */
+public class PagedResponse<T> {
+
+    private List<T> entries;
+    private int entriesCount;
+    private Integer totalEntriesCount;
+    private String next;
+
+    public PagedResponse() {
+    }
+
+    public PagedResponse(List<T> entries, Integer totalEntriesCount, String next) {
+        this.entries = entries;
+        this.entriesCount = entries.size();
+        this.totalEntriesCount = totalEntriesCount;
+        this.next = next;
+    }
+
+    public List<T> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<T> entries) {
+        this.entries = entries;
+    }
+
+    public int getEntriesCount() {
+        return entriesCount;
+    }
+
+    public void setEntriesCount(int entriesCount) {
+        this.entriesCount = entriesCount;
+    }
+
+    public Integer getTotalEntriesCount() {
+        return totalEntriesCount;
+    }
+
+    public void setTotalEntriesCount(Integer totalEntriesCount) {
+        this.totalEntriesCount = totalEntriesCount;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    @Override
+    public String toString() {
+        return "PagedResponse [entriesCount=" + entriesCount + ", totalEntriesCount=" + totalEntriesCount + ", next="
+                + next + "]";
+    }
+}
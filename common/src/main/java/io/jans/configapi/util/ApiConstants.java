@@ -64,12 +64,20 @@ public class ApiConstants {
     public static final String NAME_PARAM_PATH = "/{name}";
     public static final String KEY_PATH = "/key";
     public static final String KID_PATH = "/{kid}";
+    public static final String BULK = "/bulk";
+    public static final String EXPORT = "/export";
+    public static final String IMPORT = "/import";
     public static final String HEALTH = "/health";
     public static final String LIVE = "/live";
     public static final String READY = "/ready";
 
     public static final String LIMIT = "limit";
     public static final String PATTERN = "pattern";
+    public static final String CURSOR = "cursor";
+    public static final String STREAM = "stream";
+    public static final String FIELDS = "fields";
+    public static final String DRY_RUN = "dryRun";
+    public static final String INCLUDE_SECRETS = "includeSecrets";
     public static final String STATUS = "status";
     public static final String INUM = "inum";
     public static final String ID = "id";
@@ -79,6 +87,11 @@ public class ApiConstants {
     public static final String DISPLAY_NAME = "displayName";
     public static final String KID = "kid";
 
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final String PREFER = "Prefer";
+    public static final String PREFERENCE_APPLIED = "Preference-Applied";
+    public static final String RETURN_MINIMAL = "return=minimal";
+
     public static final String ALL = "all";
     public static final String ACTIVE = "active";
     public static final String INACTIVE = "inactive";
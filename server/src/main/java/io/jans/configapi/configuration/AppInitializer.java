@@ -9,6 +9,9 @@ package io.jans.configapi.configuration;
 import io.jans.configapi.security.api.ApiProtectionService;
 import io.jans.configapi.security.service.AuthorizationService;
 import io.jans.configapi.security.service.OpenIdAuthorizationService;
+import io.jans.configapi.service.metrics.PhaseMetricsService;
+import io.jans.configapi.service.metrics.TimedPersistence;
+import io.jans.configapi.service.metrics.TimedPersistenceEntryManager;
 import io.jans.as.common.service.common.ApplicationFactory;
 import io.jans.exception.ConfigurationException;
 import io.jans.exception.OxIntializationException;
@@ -23,11 +26,13 @@ import org.slf4j.Logger;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.BeforeDestroyed;
+import javax.enterprise.context.Dependent;
 import javax.enterprise.context.Initialized;
 import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Instance;
 import javax.enterprise.inject.Produces;
 import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.InjectionPoint;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.servlet.ServletContext;
@@ -62,6 +67,9 @@ public class AppInitializer {
     @Inject
     private Instance<AuthorizationService> authorizationServiceInstance;
 
+    @Inject
+    private PhaseMetricsService phaseMetricsService;
+
     public void onStart(@Observes @Initialized(ApplicationScoped.class) Object init) {
         log.info("=================================================================");
         log.info("=============  STARTING API APPLICATION  ========================");
@@ -105,6 +113,18 @@ public class AppInitializer {
         return persistenceEntryManager;
     }
 
+    /**
+     * The shared entry manager, timed for the injecting service only, so that
+     * other callers of the entry manager are not counted.
+     */
+    @Produces
+    @Dependent
+    @TimedPersistence
+    public PersistenceEntryManager createTimedPersistenceEntryManager(InjectionPoint injectionPoint) {
+        return TimedPersistenceEntryManager.wrap(persistenceEntryManagerInstance.get(), phaseMetricsService,
+                injectionPoint.getMember().getDeclaringClass().getSimpleName());
+    }
+
     @Produces
     @ApplicationScoped
     @Named("authorizationService")
@@ -129,6 +129,10 @@ public class ConfigurationFactory {
         return this.apiApprovedIssuer;
     }
 
+    public io.jans.configapi.model.configuration.AppConfiguration getApiAppConfiguration() {
+        return this.apiAppConfiguration;
+    }
+
     public void create() {
         loadBaseConfiguration();
         this.saltFilePath = confDir() + SALT_FILE_NAME;
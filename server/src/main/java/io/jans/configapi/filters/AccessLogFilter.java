@@ -0,0 +1,160 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.filters;
+
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.model.configuration.AppConfiguration;
+import io.jans.configapi.service.metrics.RouteMetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.servlet.*;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one access log event per request to the <code>io.jans.configapi.access</code>
+ * logger: method, route template, status, latency, client id and response
+ * bytes. Requests are sampled with accessLogSamplingRate, failed requests
+ * (status 400 and above, or an exception escaping the chain) are always
+ * logged.
+ */
+@WebFilter(urlPatterns = { "/*" })
+public class AccessLogFilter implements Filter {
+
+    public static final String CLIENT_ID_ATTRIBUTE = AccessLogFilter.class.getName() + ".clientId";
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("io.jans.configapi.access");
+    private static final String NONE = "-";
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException {
+        AppConfiguration appConfiguration = configurationFactory.getApiAppConfiguration();
+        if (!ACCESS_LOG.isInfoEnabled() || appConfiguration == null || !appConfiguration.isAccessLogEnabled()) {
+            chain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        final boolean sampled = ThreadLocalRandom.current().nextDouble() < appConfiguration.getAccessLogSamplingRate();
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+        CountingResponse countingResponse = (sampled ? new CountingResponse(response) : null);
+        boolean failed = true;
+        try {
+            chain.doFilter(servletRequest, (countingResponse != null ? countingResponse : response));
+            failed = false;
+        } finally {
+            int status = getStatus(response, failed);
+            if (sampled || status >= 400) {
+                log((HttpServletRequest) servletRequest, status, System.nanoTime() - start, countingResponse);
+            }
+        }
+    }
+
+    /**
+     * The container answers an exception escaping the chain with a 500, unless
+     * the response was already committed with its own status.
+     */
+    private int getStatus(HttpServletResponse response, boolean failed) {
+        if (failed && !response.isCommitted()) {
+            return HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        }
+        return response.getStatus();
+    }
+
+    private void log(HttpServletRequest request, int status, long latencyNanos, CountingResponse countingResponse) {
+        RouteMetricsService.Route route = (RouteMetricsService.Route) request
+                .getAttribute(RouteMetricsService.ROUTE_ATTRIBUTE);
+        Object clientId = request.getAttribute(CLIENT_ID_ATTRIBUTE);
+        ACCESS_LOG.info("{} {} {} {}ms client={} bytes={}", request.getMethod(),
+                (route != null ? route.getTemplate() : request.getRequestURI()), status,
+                TimeUnit.NANOSECONDS.toMillis(latencyNanos), (clientId != null ? clientId : NONE),
+                (countingResponse != null ? countingResponse.getByteCount() : NONE));
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    private static class CountingResponse extends HttpServletResponseWrapper {
+
+        private CountingOutputStream outputStream;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        long getByteCount() {
+            return (outputStream != null ? outputStream.count : 0);
+        }
+    }
+
+    private static class CountingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private long count;
+
+        CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
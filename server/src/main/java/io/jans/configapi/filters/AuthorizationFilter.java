@@ -7,6 +7,7 @@
 package io.jans.configapi.filters;
 
 import io.jans.configapi.security.service.AuthorizationService;
+import io.jans.configapi.security.service.VerifiedToken;
 import io.jans.configapi.util.ApiConstants;
 
 import javax.annotation.Priority;
@@ -53,32 +54,24 @@ public class AuthorizationFilter implements ContainerRequestFilter {
     AuthorizationService authorizationService;
 
     public void filter(ContainerRequestContext context) {
-        log.info("=======================================================================");
-        log.info("====== context = " + context + " , info.getAbsolutePath() = " + info.getAbsolutePath()
-                + " , info.getRequestUri() = " + info.getRequestUri() + "\n\n");
-        log.info("====== info.getBaseUri()=" + info.getBaseUri() + " info.getPath()=" + info.getPath()
-                + " info.toString()=" + info.toString());
-        log.info("====== request.getContextPath()=" + request.getContextPath() + " request.getRequestURI()="
-                + request.getRequestURI() + " request.toString() " + request.toString());
-        log.info("======" + context.getMethod() + " " + info.getPath() + " FROM IP " + request.getRemoteAddr());
-        log.info("======PERFORMING AUTHORIZATION=========================================");
+        log.debug("Performing authorization of {} {}", context.getMethod(), info.getPath());
         String authorizationHeader = context.getHeaderString(HttpHeaders.AUTHORIZATION);
         String issuer = context.getHeaderString(ApiConstants.ISSUER);
 
-        log.info("\n\n\n AuthorizationFilter::filter() - authorizationHeader = " + authorizationHeader + " , issuer = "
-                + issuer + "\n\n\n");
-
         if (!isTokenBasedAuthentication(authorizationHeader)) {
             abortWithUnauthorized(context);
-            log.info("======ONLY TOKEN BASED AUTHORIZATION IS SUPPORTED======================");
+            log.debug("Only token based authorization is supported");
             return;
         }
         try {
-            this.authorizationService.processAuthorization(authorizationHeader, issuer, resourceInfo,
-                    context.getMethod(), request.getRequestURI());
-            log.info("======AUTHORIZATION  GRANTED===========================================");
+            VerifiedToken verifiedToken = this.authorizationService.processAuthorization(authorizationHeader, issuer,
+                    resourceInfo, context.getMethod(), request.getRequestURI());
+            if (verifiedToken != null) {
+                request.setAttribute(AccessLogFilter.CLIENT_ID_ATTRIBUTE, verifiedToken.getClientId());
+            }
+            log.debug("Authorization granted");
         } catch (Exception ex) {
-            log.error("======AUTHORIZATION  FAILED ===========================================", ex);
+            log.error("Authorization failed for " + context.getMethod() + " " + info.getPath() + " - " + ex);
             abortWithUnauthorized(context);
         }
     }
@@ -0,0 +1,162 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.filters;
+
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.model.configuration.AppConfiguration;
+import io.jans.configapi.service.metrics.PhaseMetricsService;
+import io.jans.configapi.util.ContentEncoding;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips response entities for the clients accepting it. The first
+ * compressionMinSize bytes are held back: a smaller entity is sent as is, a
+ * larger one is compressed at compressionLevel. Entities already encoded, like
+ * the pre-compressed configuration documents, are left alone. The time spent
+ * compressing is reported by the compression phase timer.
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class CompressionInterceptor implements WriterInterceptor {
+
+    @Context
+    HttpHeaders httpHeaders;
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    @Inject
+    PhaseMetricsService phaseMetricsService;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        AppConfiguration appConfiguration = configurationFactory.getApiAppConfiguration();
+        MultivaluedMap<String, Object> headers = context.getHeaders();
+        if (!appConfiguration.isCompressionEnabled() || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            context.proceed();
+            return;
+        }
+
+        if (!headers.containsKey(HttpHeaders.VARY)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (!ContentEncoding.acceptsGzip(httpHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING))) {
+            context.proceed();
+            return;
+        }
+
+        CompressingOutputStream output = new CompressingOutputStream(context.getOutputStream(), headers,
+                appConfiguration.getCompressionMinSize(), appConfiguration.getCompressionLevel());
+        context.setOutputStream(output);
+        context.proceed();
+        output.finish();
+        if (output.isCompressed()) {
+            phaseMetricsService.update(PhaseMetricsService.COMPRESSION, output.compressionNanos);
+        }
+    }
+
+    /**
+     * Buffers up to minSize bytes and switches to gzip once they are exceeded.
+     * The headers are sent with the first byte written to the response, so
+     * Content-Encoding can still be set at that point.
+     */
+    private static class CompressingOutputStream extends OutputStream {
+
+        private final OutputStream output;
+        private final MultivaluedMap<String, Object> headers;
+        private final int minSize;
+        private final int level;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private GZIPOutputStream gzipOutput;
+        private boolean finished;
+        private long compressionNanos;
+
+        CompressingOutputStream(OutputStream output, MultivaluedMap<String, Object> headers, int minSize,
+                int level) {
+            this.output = output;
+            this.headers = headers;
+            this.minSize = minSize;
+            this.level = level;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (gzipOutput == null) {
+                if (buffer.size() + len < minSize) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                startCompression();
+            }
+            long start = System.nanoTime();
+            gzipOutput.write(b, off, len);
+            compressionNanos += System.nanoTime() - start;
+        }
+
+        // Below minSize nothing is flushed, the entity may still end up small
+        @Override
+        public void flush() throws IOException {
+            if (gzipOutput != null) {
+                gzipOutput.flush();
+            }
+        }
+
+        // The container owns the response stream
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (gzipOutput == null) {
+                buffer.writeTo(output);
+            } else {
+                long start = System.nanoTime();
+                gzipOutput.finish();
+                compressionNanos += System.nanoTime() - start;
+            }
+        }
+
+        boolean isCompressed() {
+            return gzipOutput != null;
+        }
+
+        private void startCompression() throws IOException {
+            headers.putSingle(HttpHeaders.CONTENT_ENCODING, ContentEncoding.GZIP);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            long start = System.nanoTime();
+            gzipOutput = ContentEncoding.gzip(output, level);
+            buffer.writeTo(gzipOutput);
+            buffer = null;
+            compressionNanos += System.nanoTime() - start;
+        }
+    }
+
+}
@@ -6,57 +6,52 @@
 
 package io.jans.configapi.filters;
 
-import org.eclipse.microprofile.metrics.*;
-import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import io.jans.configapi.service.metrics.RouteMetricsService;
+import org.eclipse.microprofile.metrics.Timer;
 
 import javax.inject.Inject;
 import javax.servlet.*;
 import javax.servlet.annotation.WebFilter;
-import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.ext.Provider;
 import java.io.IOException;
+import java.time.Duration;
 
 /**
+ * Stops the route timer started by {@link RouteFilter} after the whole chain,
+ * response serialization included. Requests that never reached a resource
+ * method are timed under a single unmatched route.
+ *
  * @author Mougang T.Gasmyr
  *
  */
 
 @Provider
-@WebFilter(urlPatterns = { "*" })
+@WebFilter(urlPatterns = { "/*" })
 public class MetricFilter implements Filter {
 
-    private static final String METER = "meter_";
-    private static final String COUNTER = "counter_";
-    private static final String TIMER = "timer_";
-
     @Inject
-    @RegistryType(type = MetricRegistry.Type.APPLICATION)
-    MetricRegistry metricRegistry;
+    RouteMetricsService routeMetricsService;
 
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
 
     }
 
-    private Metadata createMetaData(HttpServletRequest request, MetricType type, String prefix) {
-        String path = request.getRequestURI().substring(request.getContextPath().length());
-        return new MetadataBuilder().withName(prefix + path).withDisplayName(prefix + path).withType(type)
-                .withUnit(MetricUnits.SECONDS).build();
-    }
-
     @Override
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
             throws IOException, ServletException {
-        metricRegistry.counter(createMetaData((HttpServletRequest) servletRequest, MetricType.COUNTER, COUNTER)).inc();
-        Timer timer = metricRegistry
-                .timer(createMetaData((HttpServletRequest) servletRequest, MetricType.TIMER, TIMER));
-        Meter meter = metricRegistry
-                .meter(createMetaData((HttpServletRequest) servletRequest, MetricType.METERED, METER));
-
-        chain.doFilter(servletRequest, servletResponse);
-
-        meter.mark();
-        timer.time().stop();
+        final long start = System.nanoTime();
+        try {
+            chain.doFilter(servletRequest, servletResponse);
+        } finally {
+            Timer.Context timerContext = (Timer.Context) servletRequest
+                    .getAttribute(RouteMetricsService.TIMER_CONTEXT_ATTRIBUTE);
+            if (timerContext != null) {
+                timerContext.stop();
+            } else {
+                routeMetricsService.getUnmatchedRoute().getTimer().update(Duration.ofNanos(System.nanoTime() - start));
+            }
+        }
     }
 
     @Override
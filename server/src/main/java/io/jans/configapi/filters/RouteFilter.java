@@ -0,0 +1,47 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.filters;
+
+import io.jans.configapi.service.metrics.RouteMetricsService;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Records the route template of the matched resource method on the servlet
+ * request and starts its timer, which {@link MetricFilter} stops once the
+ * response has been written.
+ */
+@Provider
+@Priority(Priorities.AUTHENTICATION - 1)
+public class RouteFilter implements ContainerRequestFilter {
+
+    @Context
+    HttpServletRequest request;
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Inject
+    RouteMetricsService routeMetricsService;
+
+    @Override
+    public void filter(ContainerRequestContext context) {
+        RouteMetricsService.Route route = routeMetricsService.getRoute(resourceInfo.getResourceClass(),
+                resourceInfo.getResourceMethod());
+        request.setAttribute(RouteMetricsService.ROUTE_ATTRIBUTE, route);
+        request.setAttribute(RouteMetricsService.TIMER_CONTEXT_ATTRIBUTE, route.getTimer().time());
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.filters;
+
+import io.jans.configapi.service.metrics.PhaseMetricsService;
+import org.eclipse.microprofile.metrics.Timer;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+
+/**
+ * Times the serialization of response entities. Writer interceptors with a
+ * higher priority run inside the others, so this one runs inside
+ * {@link CompressionInterceptor}: the bytes it times are gzipped as they are
+ * written, and that share is also reported alone by the compression timer.
+ */
+@Provider
+@Priority(Priorities.USER)
+public class SerializationMetricInterceptor implements WriterInterceptor {
+
+    @Inject
+    PhaseMetricsService phaseMetricsService;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        try (Timer.Context timerContext = phaseMetricsService.time(PhaseMetricsService.SERIALIZATION)) {
+            context.proceed();
+        }
+    }
+
+}
@@ -95,6 +95,6 @@ public class ApiHealthCheck extends BaseResource {
     }
 
     private void checkDatabaseConnection() {
-        configurationService.findConf();
+        configurationService.loadConf();
     }
 }
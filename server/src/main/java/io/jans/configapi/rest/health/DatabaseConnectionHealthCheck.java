@@ -39,6 +39,6 @@ public class DatabaseConnectionHealthCheck implements HealthCheck {
     }
 
     private void checkDatabaseConnection() {
-        configurationService.findConf();
+        configurationService.loadConf();
     }
 }
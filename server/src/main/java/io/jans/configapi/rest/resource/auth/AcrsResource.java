@@ -9,14 +9,20 @@ package io.jans.configapi.rest.resource.auth;
 import io.jans.as.persistence.model.configuration.GluuConfiguration;
 import io.jans.configapi.filters.ProtectedApi;
 import io.jans.configapi.rest.model.AuthenticationMethod;
+import io.jans.configapi.service.auth.ConfigurationResponseCache;
 import io.jans.configapi.service.auth.ConfigurationService;
+import io.jans.configapi.service.auth.ConfigurationService.ConfigurationSnapshot;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
 
 import javax.inject.Inject;
 import javax.validation.Valid;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
 import org.slf4j.Logger;
@@ -35,24 +41,35 @@ public class AcrsResource extends BaseResource {
     @Inject
     ConfigurationService configurationService;
 
+    @Inject
+    ConfigurationResponseCache configurationResponseCache;
+
+    @Context
+    Request request;
+
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.ACRS_READ_ACCESS })
-    public Response getDefaultAuthenticationMethod() {
-        final GluuConfiguration gluuConfiguration = configurationService.findGluuConfiguration();
-
-        AuthenticationMethod authenticationMethod = new AuthenticationMethod();
-        authenticationMethod.setDefaultAcr(gluuConfiguration.getAuthenticationMode());
-        return Response.ok(authenticationMethod).build();
+    public Response getDefaultAuthenticationMethod(@HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding)
+            throws Exception {
+        final ConfigurationSnapshot<GluuConfiguration> snapshot = configurationService.getGluuConfigurationSnapshot();
+        return configurationResponseCache.getResponse(request, acceptEncoding, ApiConstants.ACRS,
+                snapshot.getEntityTag(), () -> {
+                    AuthenticationMethod authenticationMethod = new AuthenticationMethod();
+                    authenticationMethod.setDefaultAcr(snapshot.copy().getAuthenticationMode());
+                    return authenticationMethod;
+                });
     }
 
     @PUT
     @ProtectedApi(scopes = { ApiAccessConstants.ACRS_WRITE_ACCESS })
     public Response updateDefaultAuthenticationMethod(@Valid AuthenticationMethod authenticationMethod) {
         log.debug("ACRS details to  update - authenticationMethod = "+authenticationMethod );
-        final GluuConfiguration gluuConfiguration = configurationService.findGluuConfiguration();
+        final GluuConfiguration gluuConfiguration = configurationService.loadGluuConfiguration();
+        final EntityTag entityTag = configurationService.getEntityTag(gluuConfiguration);
+        checkPreconditions(request, entityTag);
         gluuConfiguration.setAuthenticationMode(authenticationMethod.getDefaultAcr());
-        configurationService.merge(gluuConfiguration);
-        return Response.ok(authenticationMethod).build();
+        configurationService.merge(gluuConfiguration, entityTag);
+        return Response.ok(authenticationMethod).tag(configurationService.getEntityTag(gluuConfiguration)).build();
     }
 
 }
\ No newline at end of file
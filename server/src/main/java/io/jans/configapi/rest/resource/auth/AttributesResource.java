@@ -8,22 +8,34 @@ package io.jans.configapi.rest.resource.auth;
 
 import com.github.fge.jsonpatch.JsonPatchException;
 import io.jans.configapi.filters.ProtectedApi;
+import io.jans.configapi.rest.model.BulkItemResult;
 import io.jans.configapi.service.auth.AttributeService;
+import io.jans.configapi.service.auth.BulkOperationService;
+import io.jans.configapi.service.auth.BulkOperationService.ImportWriter;
+import io.jans.configapi.service.auth.EntryStreamingService;
+import io.jans.configapi.service.auth.WriteResponseService;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
 import io.jans.configapi.util.AttributeNames;
 import io.jans.configapi.util.Jackson;
+import io.jans.configapi.util.PageCursor;
 import io.jans.model.GluuAttribute;
 
 import javax.inject.Inject;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 
@@ -45,11 +57,46 @@ public class AttributesResource extends BaseResource {
     @Inject
     AttributeService attributeService;
 
+    @Inject
+    EntryStreamingService entryStreamingService;
+
+    @Inject
+    BulkOperationService bulkOperationService;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    WriteResponseService writeResponseService;
+
+    @Context
+    UriInfo uriInfo;
+
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.ATTRIBUTES_READ_ACCESS })
     public Response getAttributes(@DefaultValue(DEFAULT_LIST_SIZE) @QueryParam(value = ApiConstants.LIMIT) int limit,
             @DefaultValue("") @QueryParam(value = ApiConstants.PATTERN) String pattern,
-            @DefaultValue(ApiConstants.ALL) @QueryParam(value = ApiConstants.STATUS) String status) throws Exception {
+            @DefaultValue(ApiConstants.ALL) @QueryParam(value = ApiConstants.STATUS) String status,
+            @QueryParam(value = ApiConstants.CURSOR) String cursor,
+            @QueryParam(value = ApiConstants.FIELDS) String fields) throws Exception {
+        String[] returnAttributes = getReturnAttributes(GluuAttribute.class, fields);
+        if (cursor != null || returnAttributes != null) {
+            Boolean active = null;
+            if (status.equalsIgnoreCase(ApiConstants.ACTIVE)) {
+                active = true;
+            } else if (status.equalsIgnoreCase(ApiConstants.INACTIVE)) {
+                active = false;
+            }
+            // Shorter patterns are ignored, with or without a cursor
+            String searchPattern = (pattern.length() >= 2 ? pattern : null);
+            if (cursor != null) {
+                checkPageLimit(limit);
+                return getPagedResponse(attributeService.getAttributesPage(searchPattern, active, returnAttributes,
+                        PageCursor.decode(cursor), limit), uriInfo);
+            }
+            return Response.ok(attributeService.searchAttributes(searchPattern, active, returnAttributes, limit))
+                    .build();
+        }
         List<GluuAttribute> attributes = new ArrayList<GluuAttribute>();
 
         if (status.equalsIgnoreCase(ApiConstants.ALL)) {
@@ -79,15 +126,20 @@ public class AttributesResource extends BaseResource {
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.ATTRIBUTES_READ_ACCESS })
     @Path(ApiConstants.INUM_PATH)
-    public Response getAttributeByInum(@PathParam(ApiConstants.INUM) @NotNull String inum) {
-        GluuAttribute attribute = attributeService.getAttributeByInum(inum);
+    public Response getAttributeByInum(@PathParam(ApiConstants.INUM) @NotNull String inum,
+            @QueryParam(value = ApiConstants.FIELDS) String fields) {
+        String[] returnAttributes = getReturnAttributes(GluuAttribute.class, fields);
+        GluuAttribute attribute = (returnAttributes != null
+                ? attributeService.getAttributeByInum(inum, returnAttributes)
+                : attributeService.getAttributeByInum(inum));
         checkResourceNotNull(attribute, GLUU_ATTRIBUTE);
         return Response.ok(attribute).build();
     }
 
     @POST
     @ProtectedApi(scopes = { ApiAccessConstants.ATTRIBUTES_WRITE_ACCESS })
-    public Response createAttribute(@Valid GluuAttribute attribute) {
+    public Response createAttribute(@Valid GluuAttribute attribute,
+            @HeaderParam(ApiConstants.PREFER) String prefer) {
         log.debug(" GluuAttribute details to add - attribute = " + attribute);
         checkNotNull(attribute.getName(), AttributeNames.NAME);
         checkNotNull(attribute.getDisplayName(), AttributeNames.DISPLAY_NAME);
@@ -96,13 +148,19 @@ public class AttributesResource extends BaseResource {
         attribute.setInum(inum);
         attribute.setDn(attributeService.getDnForAttribute(inum));
         attributeService.addAttribute(attribute);
-        GluuAttribute result = attributeService.getAttributeByInum(inum);
+        if (writeResponseService.isReturnMinimal(prefer)) {
+            return writeResponseService.getMinimalCreatedResponse(
+                    uriInfo.getAbsolutePathBuilder().path(inum).build());
+        }
+        GluuAttribute result = writeResponseService.getWrittenEntity(attribute,
+                () -> attributeService.getAttributeByInum(inum));
         return Response.status(Response.Status.CREATED).entity(result).build();
     }
 
     @PUT
     @ProtectedApi(scopes = { ApiAccessConstants.ATTRIBUTES_WRITE_ACCESS })
-    public Response updateAttribute(@Valid GluuAttribute attribute) {
+    public Response updateAttribute(@Valid GluuAttribute attribute,
+            @HeaderParam(ApiConstants.PREFER) String prefer) {
         log.debug(" GluuAttribute details to update - attribute = " + attribute);
         String inum = attribute.getInum();
         checkResourceNotNull(inum, GLUU_ATTRIBUTE);
@@ -114,7 +172,11 @@ public class AttributesResource extends BaseResource {
         attribute.setInum(existingAttribute.getInum());
         attribute.setBaseDn(attributeService.getDnForAttribute(inum));
         attributeService.updateAttribute(attribute);
-        GluuAttribute result = attributeService.getAttributeByInum(inum);
+        if (writeResponseService.isReturnMinimal(prefer)) {
+            return writeResponseService.getMinimalResponse();
+        }
+        GluuAttribute result = writeResponseService.getWrittenEntity(attribute,
+                () -> attributeService.getAttributeByInum(inum));
         return Response.ok(result).build();
     }
 
@@ -144,4 +206,73 @@ public class AttributesResource extends BaseResource {
         return Response.noContent().build();
     }
 
+
+    @GET
+    @Path(ApiConstants.EXPORT)
+    @Produces(ApiConstants.APPLICATION_NDJSON)
+    @ProtectedApi(scopes = { ApiAccessConstants.ATTRIBUTES_READ_ACCESS })
+    public Response exportAttributes() {
+        log.debug(" GluuAttributes to be exported");
+        return Response.ok(entryStreamingService.streamEntriesAsNdjson(attributeService.getDnForAttribute(null),
+                GluuAttribute.class, null)).build();
+    }
+
+    @POST
+    @Path(ApiConstants.IMPORT)
+    @Consumes({ MediaType.APPLICATION_JSON, ApiConstants.APPLICATION_NDJSON })
+    @ProtectedApi(scopes = { ApiAccessConstants.ATTRIBUTES_WRITE_ACCESS })
+    public Response importAttributes(@DefaultValue("false") @QueryParam(ApiConstants.DRY_RUN) boolean dryRun,
+            InputStream body) throws IOException {
+        List<GluuAttribute> attributes = bulkOperationService.readItems(body, GluuAttribute.class);
+        log.debug(" GluuAttributes to be imported - count = " + attributes.size() + " , dryRun = " + dryRun);
+
+        List<BulkItemResult> errors = new ArrayList<>();
+        Map<String, Integer> indexByInum = new HashMap<>();
+        for (int i = 0; i < attributes.size(); i++) {
+            GluuAttribute attribute = attributes.get(i);
+            String inum = attribute.getInum();
+            BulkItemResult violation = getConstraintViolationResult(i, inum, validator.validate(attribute));
+            if (attribute.getName() == null) {
+                errors.add(getMissingAttributeResult(i, inum, AttributeNames.NAME));
+            } else if (attribute.getDisplayName() == null) {
+                errors.add(getMissingAttributeResult(i, inum, AttributeNames.DISPLAY_NAME));
+            } else if (attribute.getDataType() == null) {
+                errors.add(getMissingAttributeResult(i, inum, AttributeNames.DATA_TYPE));
+            } else if (violation != null) {
+                errors.add(violation);
+            } else if (inum != null && indexByInum.putIfAbsent(inum, i) != null) {
+                errors.add(BulkItemResult.failure(i, inum, Response.Status.CONFLICT.getStatusCode(),
+                        "Duplicate inum in request"));
+            }
+        }
+        if (!errors.isEmpty()) {
+            return getBulkValidationError(errors);
+        }
+
+        Map<String, GluuAttribute> existingAttributes = new HashMap<>();
+        for (GluuAttribute attribute : attributeService.findAttributesByInums(indexByInum.keySet())) {
+            existingAttributes.put(attribute.getInum(), attribute);
+        }
+
+        List<BulkItemResult> results = bulkOperationService.importItems(attributes, existingAttributes,
+                GluuAttribute::getInum, dryRun, new ImportWriter<GluuAttribute>() {
+
+                    @Override
+                    public String create(GluuAttribute attribute) {
+                        String inum = (attribute.getInum() != null ? attribute.getInum()
+                                : attributeService.generateInumForNewAttribute());
+                        attribute.setInum(inum);
+                        attribute.setDn(attributeService.getDnForAttribute(inum));
+                        attributeService.addAttribute(attribute);
+                        return inum;
+                    }
+
+                    @Override
+                    public void update(GluuAttribute attribute, GluuAttribute existingAttribute) {
+                        attribute.setBaseDn(attributeService.getDnForAttribute(attribute.getInum()));
+                        attributeService.updateAttribute(attribute);
+                    }
+                });
+        return Response.ok(results).build();
+    }
 }
@@ -7,12 +7,25 @@
 package io.jans.configapi.rest.resource.auth;
 
 import io.jans.configapi.rest.model.ApiError;
+import io.jans.configapi.rest.model.BulkItemResult;
+import io.jans.configapi.rest.model.PagedResponse;
 import io.jans.configapi.util.ApiConstants;
+import io.jans.configapi.util.ReturnAttributes;
 
+import javax.validation.ConstraintViolation;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Link;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * @author Mougang T.Gasmyr
@@ -59,6 +72,87 @@ public class BaseResource {
         return Response.status(Response.Status.NOT_FOUND).entity(error).build();
     }
 
+    protected static BulkItemResult getMissingAttributeResult(int index, String id, String attributeName) {
+        return BulkItemResult.failure(index, id, Response.Status.BAD_REQUEST.getStatusCode(),
+                "The attribute " + attributeName + " is required for this operation");
+    }
+
+    /**
+     * Failure of a bulk item breaking the Bean Validation constraints of its
+     * class, as checked by <code>@Valid</code> on the single item endpoints;
+     * null when there is no violation.
+     */
+    protected static BulkItemResult getConstraintViolationResult(int index, String id,
+            Set<? extends ConstraintViolation<?>> violations) {
+        if (violations.isEmpty()) {
+            return null;
+        }
+        String message = violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage()).sorted()
+                .collect(Collectors.joining(", "));
+        return BulkItemResult.failure(index, id, Response.Status.BAD_REQUEST.getStatusCode(), message);
+    }
+
+    /**
+     * Rejects a whole bulk request, listing the items that failed validation.
+     */
+    protected static Response getBulkValidationError(List<BulkItemResult> errors) {
+        errors.sort(Comparator.comparingInt(BulkItemResult::getIndex));
+        return Response.status(Response.Status.BAD_REQUEST).entity(errors).build();
+    }
+
+    /**
+     * Persistence attributes backing the <code>fields</code> query parameter,
+     * null to read whole entries.
+     */
+    protected static String[] getReturnAttributes(Class<?> entryClass, String fields) {
+        return ReturnAttributes.resolve(entryClass, fields);
+    }
+
+    public static void checkPageLimit(int limit) {
+        if (limit <= 0) {
+            ApiError error = new ApiError.ErrorBuilder()
+                    .withCode(String.valueOf(Response.Status.BAD_REQUEST.getStatusCode()))
+                    .withMessage("Invalid " + ApiConstants.LIMIT)
+                    .andDescription("The " + ApiConstants.LIMIT + " of a page must be greater than 0").build();
+            throw new BadRequestException(Response.status(Response.Status.BAD_REQUEST).entity(error).build());
+        }
+    }
+
+    /**
+     * Page of a list endpoint, with a <code>rel="next"</code> link to the
+     * following page unless it is the last one.
+     */
+    protected static <T> Response getPagedResponse(PagedResponse<T> page, UriInfo uriInfo) {
+        Response.ResponseBuilder builder = Response.ok(page);
+        if (page.getNext() != null) {
+            builder.links(Link.fromUriBuilder(
+                    uriInfo.getRequestUriBuilder().replaceQueryParam(ApiConstants.CURSOR, page.getNext())).rel("next")
+                    .build());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Evaluates the If-Match and If-None-Match request headers against the
+     * current tag of the resource; ends the request with 304 for an unchanged
+     * representation on a GET, with 412 for a failed precondition.
+     */
+    protected static void checkPreconditions(Request request, EntityTag entityTag) {
+        Response.ResponseBuilder builder = request.evaluatePreconditions(entityTag);
+        if (builder != null) {
+            throw new WebApplicationException(builder.tag(entityTag).build());
+        }
+    }
+
+    /**
+     * Preconditions of a write, checked with {@link #checkPreconditions} against
+     * the tag of the entry about to be changed.
+     */
+    protected static Consumer<EntityTag> getPreconditions(Request request) {
+        return entityTag -> checkPreconditions(request, entityTag);
+    }
+
     protected static Response getNotAcceptableException(String msg) {
         ApiError error = new ApiError.ErrorBuilder()
                 .withCode(String.valueOf(Response.Status.NOT_ACCEPTABLE.getStatusCode())).withMessage(msg).build();
@@ -7,21 +7,24 @@
 package io.jans.configapi.rest.resource.auth;
 
 import com.github.fge.jsonpatch.JsonPatchException;
-import io.jans.as.common.service.common.ApplicationFactory;
 import io.jans.as.persistence.model.configuration.GluuConfiguration;
 import io.jans.configapi.filters.ProtectedApi;
+import io.jans.configapi.service.auth.ConfigurationResponseCache;
 import io.jans.configapi.service.auth.ConfigurationService;
+import io.jans.configapi.service.auth.ConfigurationService.ConfigurationSnapshot;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
 import io.jans.configapi.util.Jackson;
-import io.jans.orm.PersistenceEntryManager;
 import io.jans.service.cache.*;
 
 import javax.inject.Inject;
-import javax.inject.Named;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.util.function.Function;
@@ -40,27 +43,46 @@ public class CacheConfigurationResource extends BaseResource {
     ConfigurationService configurationService;
 
     @Inject
-    @Named(ApplicationFactory.PERSISTENCE_ENTRY_MANAGER_NAME)
-    PersistenceEntryManager persistenceManager;
+    ConfigurationResponseCache configurationResponseCache;
 
-    private CacheConfiguration loadCacheConfiguration() {
-        return configurationService.findGluuConfiguration().getCacheConfiguration();
+    @Context
+    Request request;
+
+    /**
+     * Part of the cache configuration, tagged with the GluuConfiguration it
+     * belongs to.
+     */
+    private Response getCacheResponse(Function<CacheConfiguration, ?> part) {
+        final ConfigurationSnapshot<GluuConfiguration> snapshot = configurationService.getGluuConfigurationSnapshot();
+        final EntityTag entityTag = snapshot.getEntityTag();
+        checkPreconditions(request, entityTag);
+        return Response.ok(part.apply(snapshot.copy().getCacheConfiguration())).tag(entityTag).build();
+    }
+
+    private Response getCacheResponse(GluuConfiguration gluuConfiguration, Function<CacheConfiguration, ?> part) {
+        return Response.ok(part.apply(gluuConfiguration.getCacheConfiguration()))
+                .tag(configurationService.getEntityTag(gluuConfiguration)).build();
     }
 
-    private CacheConfiguration mergeModifiedCache(Function<CacheConfiguration, CacheConfiguration> function) {
-        final GluuConfiguration gluuConfiguration = configurationService.findGluuConfiguration();
+    private GluuConfiguration mergeModifiedCache(Function<CacheConfiguration, CacheConfiguration> function) {
+        final GluuConfiguration gluuConfiguration = configurationService.loadGluuConfiguration();
+        final EntityTag entityTag = configurationService.getEntityTag(gluuConfiguration);
+        checkPreconditions(request, entityTag);
 
         final CacheConfiguration modifiedCache = function.apply(gluuConfiguration.getCacheConfiguration());
         gluuConfiguration.setCacheConfiguration(modifiedCache);
 
-        persistenceManager.merge(gluuConfiguration);
-        return modifiedCache;
+        configurationService.merge(gluuConfiguration, entityTag);
+        return gluuConfiguration;
     }
 
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.CACHE_READ_ACCESS })
-    public Response getCacheConfiguration() {
-        return Response.ok(loadCacheConfiguration()).build();
+    public Response getCacheConfiguration(@HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding)
+            throws Exception {
+        final ConfigurationSnapshot<GluuConfiguration> snapshot = configurationService.getGluuConfigurationSnapshot();
+        return configurationResponseCache.getResponse(request, acceptEncoding, ApiConstants.CONFIG + ApiConstants.CACHE,
+                snapshot.getEntityTag(), () -> snapshot.copy().getCacheConfiguration());
     }
 
     @PATCH
@@ -68,21 +90,21 @@ public class CacheConfigurationResource extends BaseResource {
     @ProtectedApi(scopes = { ApiAccessConstants.CACHE_WRITE_ACCESS })
     public Response patchCacheConfiguration(@NotNull String requestString) {
         log.debug(" CACHE details to patch - requestString = " + requestString);
-        final CacheConfiguration modifiedCache = mergeModifiedCache(cache -> {
+        final GluuConfiguration gluuConfiguration = mergeModifiedCache(cache -> {
             try {
                 return Jackson.applyPatch(requestString, cache);
             } catch (IOException | JsonPatchException e) {
                 throw new RuntimeException("Unable to apply patch.", e);
             }
         });
-        return Response.ok(modifiedCache).build();
+        return getCacheResponse(gluuConfiguration, Function.identity());
     }
 
     @GET
     @Path(ApiConstants.REDIS)
     @ProtectedApi(scopes = { ApiAccessConstants.CACHE_READ_ACCESS })
     public Response getRedisConfiguration() {
-        return Response.ok(loadCacheConfiguration().getRedisConfiguration()).build();
+        return getCacheResponse(CacheConfiguration::getRedisConfiguration);
     }
 
     @PUT
@@ -90,11 +112,11 @@ public class CacheConfigurationResource extends BaseResource {
     @ProtectedApi(scopes = { ApiAccessConstants.CACHE_WRITE_ACCESS })
     public Response updateRedisConfiguration(@NotNull RedisConfiguration redisConfiguration) {
         log.debug("REDIS CACHE details to update - redisConfiguration = " + redisConfiguration);
-        final CacheConfiguration modifiedCache = mergeModifiedCache(cache -> {
+        final GluuConfiguration gluuConfiguration = mergeModifiedCache(cache -> {
             cache.setRedisConfiguration(redisConfiguration);
             return cache;
         });
-        return Response.ok(modifiedCache.getRedisConfiguration()).build();
+        return getCacheResponse(gluuConfiguration, CacheConfiguration::getRedisConfiguration);
     }
 
     @PATCH
@@ -103,21 +125,21 @@ public class CacheConfigurationResource extends BaseResource {
     @ProtectedApi(scopes = { ApiAccessConstants.CACHE_WRITE_ACCESS })
     public Response patchRedisConfiguration(@NotNull String requestString) {
         log.debug("REDIS CACHE details to patch - requestString = " + requestString);
-        final CacheConfiguration modifiedCache = mergeModifiedCache(cache -> {
+        final GluuConfiguration gluuConfiguration = mergeModifiedCache(cache -> {
             try {
                 return Jackson.applyPatch(requestString, cache);
             } catch (IOException | JsonPatchException e) {
                 throw new RuntimeException("Unable to apply patch.", e);
             }
         });
-        return Response.ok(loadCacheConfiguration().getRedisConfiguration()).build();
+        return getCacheResponse(gluuConfiguration, CacheConfiguration::getRedisConfiguration);
     }
 
     @GET
     @Path(ApiConstants.IN_MEMORY)
     @ProtectedApi(scopes = { ApiAccessConstants.CACHE_READ_ACCESS })
     public Response getInMemoryConfiguration() {
-        return Response.ok(loadCacheConfiguration().getInMemoryConfiguration()).build();
+        return getCacheResponse(CacheConfiguration::getInMemoryConfiguration);
     }
 
     @PUT
@@ -125,12 +147,12 @@ public class CacheConfigurationResource extends BaseResource {
     @ProtectedApi(scopes = { ApiAccessConstants.CACHE_WRITE_ACCESS })
     public Response updateInMemoryConfiguration(@NotNull InMemoryConfiguration inMemoryConfiguration) {
         log.debug("IN_MEMORY CACHE details to update - inMemoryConfiguration = " + inMemoryConfiguration);
-        final CacheConfiguration modifiedCache = mergeModifiedCache(cache -> {
+        final GluuConfiguration gluuConfiguration = mergeModifiedCache(cache -> {
             cache.setInMemoryConfiguration(inMemoryConfiguration);
             return cache;
         });
 
-        return Response.ok(modifiedCache.getInMemoryConfiguration()).build();
+        return getCacheResponse(gluuConfiguration, CacheConfiguration::getInMemoryConfiguration);
     }
 
     @PATCH
@@ -139,21 +161,21 @@ public class CacheConfigurationResource extends BaseResource {
     @ProtectedApi(scopes = { ApiAccessConstants.CACHE_WRITE_ACCESS })
     public Response patchInMemoryConfiguration(@NotNull String requestString) {
         log.debug("IN_MEMORY CACHE details to patch - requestString = " + requestString);
-        final CacheConfiguration modifiedCache = mergeModifiedCache(cache -> {
+        final GluuConfiguration gluuConfiguration = mergeModifiedCache(cache -> {
             try {
                 return Jackson.applyPatch(requestString, cache);
             } catch (IOException | JsonPatchException e) {
                 throw new RuntimeException("Unable to apply patch.", e);
             }
         });
-        return Response.ok(loadCacheConfiguration().getInMemoryConfiguration()).build();
+        return getCacheResponse(gluuConfiguration, CacheConfiguration::getInMemoryConfiguration);
     }
 
     @GET
     @Path(ApiConstants.NATIVE_PERSISTENCE)
     @ProtectedApi(scopes = { ApiAccessConstants.CACHE_READ_ACCESS })
     public Response getNativePersistenceConfiguration() {
-        return Response.ok(loadCacheConfiguration().getNativePersistenceConfiguration()).build();
+        return getCacheResponse(CacheConfiguration::getNativePersistenceConfiguration);
     }
 
     @PUT
@@ -163,11 +185,11 @@ public class CacheConfigurationResource extends BaseResource {
             @NotNull NativePersistenceConfiguration nativePersistenceConfiguration) {
         log.debug("NATIVE_PERSISTENCE CACHE details to update - nativePersistenceConfiguration = "
                 + nativePersistenceConfiguration);
-        final CacheConfiguration modifiedCache = mergeModifiedCache(cache -> {
+        final GluuConfiguration gluuConfiguration = mergeModifiedCache(cache -> {
             cache.setNativePersistenceConfiguration(nativePersistenceConfiguration);
             return cache;
         });
-        return Response.ok(modifiedCache.getNativePersistenceConfiguration()).build();
+        return getCacheResponse(gluuConfiguration, CacheConfiguration::getNativePersistenceConfiguration);
     }
 
     @PATCH
@@ -176,21 +198,21 @@ public class CacheConfigurationResource extends BaseResource {
     @ProtectedApi(scopes = { ApiAccessConstants.CACHE_WRITE_ACCESS })
     public Response patchNativePersistenceConfiguration(@NotNull String requestString) {
         log.debug("NATIVE_PERSISTENCE CACHE details to patch - requestString = " + requestString);
-        final CacheConfiguration modifiedCache = mergeModifiedCache(cache -> {
+        final GluuConfiguration gluuConfiguration = mergeModifiedCache(cache -> {
             try {
                 return Jackson.applyPatch(requestString, cache);
             } catch (IOException | JsonPatchException e) {
                 throw new RuntimeException("Unable to apply patch.", e);
             }
         });
-        return Response.ok(loadCacheConfiguration().getNativePersistenceConfiguration()).build();
+        return getCacheResponse(gluuConfiguration, CacheConfiguration::getNativePersistenceConfiguration);
     }
 
     @GET
     @Path(ApiConstants.MEMCACHED)
     @ProtectedApi(scopes = { ApiAccessConstants.CACHE_READ_ACCESS })
     public Response getMemcachedConfiguration() {
-        return Response.ok(loadCacheConfiguration().getMemcachedConfiguration()).build();
+        return getCacheResponse(CacheConfiguration::getMemcachedConfiguration);
     }
 
     @PUT
@@ -198,11 +220,11 @@ public class CacheConfigurationResource extends BaseResource {
     @ProtectedApi(scopes = { ApiAccessConstants.CACHE_WRITE_ACCESS })
     public Response updateMemcachedConfiguration(@NotNull MemcachedConfiguration memcachedConfiguration) {
         log.debug("MEMCACHED CACHE details to update - memcachedConfiguration = " + memcachedConfiguration);
-        final CacheConfiguration modifiedCache = mergeModifiedCache(cache -> {
+        final GluuConfiguration gluuConfiguration = mergeModifiedCache(cache -> {
             cache.setMemcachedConfiguration(memcachedConfiguration);
             return cache;
         });
-        return Response.ok(modifiedCache.getMemcachedConfiguration()).build();
+        return getCacheResponse(gluuConfiguration, CacheConfiguration::getMemcachedConfiguration);
     }
 
     @PATCH
@@ -211,14 +233,14 @@ public class CacheConfigurationResource extends BaseResource {
     @ProtectedApi(scopes = { ApiAccessConstants.CACHE_WRITE_ACCESS })
     public Response patchMemcachedConfiguration(@NotNull String requestString) {
         log.debug("MEMCACHED CACHE details to patch - requestString = " + requestString);
-        final CacheConfiguration modifiedCache = mergeModifiedCache(cache -> {
+        final GluuConfiguration gluuConfiguration = mergeModifiedCache(cache -> {
             try {
                 return Jackson.applyPatch(requestString, cache);
             } catch (IOException | JsonPatchException e) {
                 throw new RuntimeException("Unable to apply patch.", e);
             }
         });
-        return Response.ok(loadCacheConfiguration().getMemcachedConfiguration()).build();
+        return getCacheResponse(gluuConfiguration, CacheConfiguration::getMemcachedConfiguration);
     }
 
 }
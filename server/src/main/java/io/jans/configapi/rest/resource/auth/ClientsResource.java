@@ -10,22 +10,43 @@ import com.github.fge.jsonpatch.JsonPatchException;
 import io.jans.as.common.model.registration.Client;
 import io.jans.as.common.service.common.EncryptionService;
 import io.jans.configapi.filters.ProtectedApi;
+import io.jans.configapi.rest.model.BulkItemResult;
+import io.jans.configapi.rest.model.PagedResponse;
+import io.jans.configapi.service.auth.BulkOperationService;
+import io.jans.configapi.service.auth.ClientSecretService;
 import io.jans.configapi.service.auth.ClientService;
+import io.jans.configapi.service.auth.EntryStreamingService;
+import io.jans.configapi.service.auth.WriteResponseService;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
 import io.jans.configapi.util.AttributeNames;
 import io.jans.configapi.util.Jackson;
+import io.jans.configapi.util.PageCursor;
+import io.jans.configapi.util.ReturnAttributes;
+import io.jans.orm.search.filter.Filter;
 import io.jans.util.security.StringEncrypter.EncryptionException;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 
 /**
@@ -40,6 +61,7 @@ import org.slf4j.Logger;
 public class ClientsResource extends BaseResource {
 
     private static final String OPENID_CONNECT_CLIENT = "openid connect client";
+    private static final String CLIENT_SECRET_ATTRIBUTE = ReturnAttributes.resolve(Client.class, "clientSecret")[0];
 
     @Inject
     Logger log;
@@ -50,32 +72,72 @@ public class ClientsResource extends BaseResource {
     @Inject
     EncryptionService encryptionService;
 
+    @Inject
+    EntryStreamingService entryStreamingService;
+
+    @Inject
+    BulkOperationService bulkOperationService;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    WriteResponseService writeResponseService;
+
+    @Inject
+    ClientSecretService clientSecretService;
+
+    @Context
+    UriInfo uriInfo;
+
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.OPENID_CLIENTS_READ_ACCESS })
     public Response getOpenIdConnectClients(
             @DefaultValue(DEFAULT_LIST_SIZE) @QueryParam(value = ApiConstants.LIMIT) int limit,
-            @DefaultValue("") @QueryParam(value = ApiConstants.PATTERN) String pattern) throws Exception {
+            @DefaultValue("") @QueryParam(value = ApiConstants.PATTERN) String pattern,
+            @QueryParam(value = ApiConstants.CURSOR) String cursor,
+            @DefaultValue("false") @QueryParam(value = ApiConstants.STREAM) boolean stream,
+            @QueryParam(value = ApiConstants.FIELDS) String fields,
+            @DefaultValue("true") @QueryParam(value = ApiConstants.INCLUDE_SECRETS) boolean includeSecrets)
+            throws Exception {
+        String[] returnAttributes = getReturnAttributes(Client.class, fields);
+        // Shorter patterns are ignored, whichever way the clients are listed
+        String searchPattern = (pattern.length() >= 2 ? pattern : null);
+        if (stream) {
+            Filter searchFilter = (searchPattern != null ? clientService.createSearchFilter(searchPattern) : null);
+            return Response.ok(entryStreamingService.streamEntries(clientService.getDnForClient(null), Client.class,
+                    searchFilter, returnAttributes, getSecretTransformer(returnAttributes, includeSecrets))).build();
+        }
+        if (cursor != null) {
+            checkPageLimit(limit);
+            PagedResponse<Client> page = clientService.getClientsPage(searchPattern, returnAttributes,
+                    PageCursor.decode(cursor), limit);
+            getClients(page.getEntries(), returnAttributes, includeSecrets);
+            return getPagedResponse(page, uriInfo);
+        }
         final List<Client> clients;
-        if (!pattern.isEmpty() && pattern.length() >= 2) {
-            clients = clientService.searchClients(pattern, limit);
+        if (searchPattern != null) {
+            clients = clientService.searchClients(searchPattern, limit, returnAttributes);
         } else {
-            clients = clientService.getAllClients(limit);
+            clients = clientService.getAllClients(limit, returnAttributes);
         }
-        return Response.ok(getClients(clients)).build();
+        return Response.ok(getClients(clients, returnAttributes, includeSecrets)).build();
     }
 
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.OPENID_CLIENTS_READ_ACCESS })
     @Path(ApiConstants.INUM_PATH)
-    public Response getOpenIdClientByInum(@PathParam(ApiConstants.INUM) @NotNull String inum) {
-        Client client = clientService.getClientByInum(inum);
+    public Response getOpenIdClientByInum(@PathParam(ApiConstants.INUM) @NotNull String inum,
+            @QueryParam(value = ApiConstants.FIELDS) String fields) {
+        Client client = clientService.getClientByInum(inum, getReturnAttributes(Client.class, fields));
         checkResourceNotNull(client, OPENID_CONNECT_CLIENT);
         return Response.ok(client).build();
     }
 
     @POST
     @ProtectedApi(scopes = { ApiAccessConstants.OPENID_CLIENTS_WRITE_ACCESS })
-    public Response createOpenIdConnect(@Valid Client client) throws EncryptionException {
+    public Response createOpenIdConnect(@Valid Client client,
+            @HeaderParam(ApiConstants.PREFER) String prefer) throws EncryptionException {
         log.debug("Client details to be added - client = " + client);
         String inum = client.getClientId();
         if (inum == null || inum.isEmpty() || inum.isBlank()) {
@@ -89,7 +151,12 @@ public class ClientsResource extends BaseResource {
         client.setDn(clientService.getDnForClient(inum));
         client.setDeletable(client.getClientSecretExpiresAt() != null);
         clientService.addClient(client);
-        Client result = clientService.getClientByInum(inum);
+        if (writeResponseService.isReturnMinimal(prefer)) {
+            return writeResponseService.getMinimalCreatedResponse(
+                    uriInfo.getAbsolutePathBuilder().path(inum).build());
+        }
+        Client result = writeResponseService.getWrittenEntity(client,
+                () -> clientService.getClientByInum(client.getClientId()));
         if (result.getClientSecret() != null) {
             result.setClientSecret(encryptionService.encrypt(result.getClientSecret()));
         }
@@ -98,7 +165,8 @@ public class ClientsResource extends BaseResource {
 
     @PUT
     @ProtectedApi(scopes = { ApiAccessConstants.OPENID_CLIENTS_WRITE_ACCESS })
-    public Response updateClient(@Valid Client client) throws EncryptionException {
+    public Response updateClient(@Valid Client client, @HeaderParam(ApiConstants.PREFER) String prefer)
+            throws EncryptionException {
         log.debug("Client details to be updated - client = " + client);
         String inum = client.getClientId();
         checkNotNull(inum, AttributeNames.INUM);
@@ -112,7 +180,10 @@ public class ClientsResource extends BaseResource {
             client.setClientSecret(encryptionService.encrypt(client.getClientSecret()));
         }
         clientService.updateClient(client);
-        Client result = clientService.getClientByInum(existingClient.getClientId());
+        if (writeResponseService.isReturnMinimal(prefer)) {
+            return writeResponseService.getMinimalResponse();
+        }
+        Client result = writeResponseService.getWrittenEntity(client, () -> clientService.getClientByInum(inum));
         if (result.getClientSecret() != null) {
             result.setClientSecret(encryptionService.decrypt(client.getClientSecret()));
         }
@@ -145,18 +216,190 @@ public class ClientsResource extends BaseResource {
         return Response.noContent().build();
     }
 
-    private List<Client> getClients(List<Client> clients) throws Exception {
-        if (clients != null && !clients.isEmpty()) {
-            for (Client client : clients)
+    @POST
+    @Path(ApiConstants.BULK)
+    @Consumes({ MediaType.APPLICATION_JSON, ApiConstants.APPLICATION_NDJSON })
+    @ProtectedApi(scopes = { ApiAccessConstants.OPENID_CLIENTS_WRITE_ACCESS })
+    public Response createClients(InputStream body) throws IOException {
+        List<Client> clients = bulkOperationService.readItems(body, Client.class);
+        log.debug("Clients to be added in bulk - count = " + clients.size());
+
+        // Validate every item before writing any
+        List<BulkItemResult> errors = new ArrayList<>();
+        Map<String, Integer> indexByInum = new HashMap<>();
+        int newInumCount = 0;
+        for (int i = 0; i < clients.size(); i++) {
+            Client client = clients.get(i);
+            String inum = client.getClientId();
+            BulkItemResult violation = getConstraintViolationResult(i, inum, validator.validate(client));
+            if (client.getClientName() == null) {
+                errors.add(getMissingAttributeResult(i, inum, AttributeNames.DISPLAY_NAME));
+            } else if (violation != null) {
+                errors.add(violation);
+            } else if (StringUtils.isBlank(inum)) {
+                newInumCount++;
+            } else if (indexByInum.putIfAbsent(inum, i) != null) {
+                errors.add(BulkItemResult.failure(i, inum, Response.Status.CONFLICT.getStatusCode(),
+                        "Duplicate inum in request"));
+            }
+        }
+        for (String inum : clientService.findExistingInums(indexByInum.keySet())) {
+            errors.add(BulkItemResult.failure(indexByInum.get(inum), inum, Response.Status.CONFLICT.getStatusCode(),
+                    "Client already exists"));
+        }
+        if (!errors.isEmpty()) {
+            return getBulkValidationError(errors);
+        }
+
+        Iterator<String> newInums = clientService.generateInumsForNewClients(newInumCount, indexByInum.keySet())
+                .iterator();
+        for (Client client : clients) {
+            if (StringUtils.isBlank(client.getClientId())) {
+                client.setClientId(newInums.next());
+            }
+        }
+
+        List<BulkItemResult> results = bulkOperationService.execute(clients, (index, client) -> {
+            String inum = client.getClientId();
+            try {
                 if (client.getClientSecret() != null) {
-                    try {
-                        client.setClientSecret(encryptionService.decrypt(client.getClientSecret()));
-                    } catch (EncryptionException exp) {
-                        log.error("Error while client([" + client + "]) secret decryption - " + exp + "!");
-                    }
+                    client.setClientSecret(encryptionService.encrypt(client.getClientSecret()));
                 }
+                client.setDn(clientService.getDnForClient(inum));
+                client.setDeletable(client.getClientSecretExpiresAt() != null);
+                clientService.addClient(client);
+                return BulkItemResult.success(index, inum, Response.Status.CREATED.getStatusCode());
+            } catch (Exception ex) {
+                log.error("Failed to add client " + inum, ex);
+                return BulkItemResult.failure(index, inum, Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+                        ex.getMessage());
+            }
+        });
+        return Response.ok(results).build();
+    }
+
+    @PUT
+    @Path(ApiConstants.BULK)
+    @Consumes({ MediaType.APPLICATION_JSON, ApiConstants.APPLICATION_NDJSON })
+    @ProtectedApi(scopes = { ApiAccessConstants.OPENID_CLIENTS_WRITE_ACCESS })
+    public Response updateClients(InputStream body) throws IOException {
+        List<Client> clients = bulkOperationService.readItems(body, Client.class);
+        log.debug("Clients to be updated in bulk - count = " + clients.size());
+
+        List<BulkItemResult> errors = new ArrayList<>();
+        Map<String, Integer> indexByInum = new HashMap<>();
+        for (int i = 0; i < clients.size(); i++) {
+            Client client = clients.get(i);
+            String inum = client.getClientId();
+            BulkItemResult violation = getConstraintViolationResult(i, inum, validator.validate(client));
+            if (inum == null) {
+                errors.add(getMissingAttributeResult(i, null, AttributeNames.INUM));
+            } else if (client.getClientName() == null) {
+                errors.add(getMissingAttributeResult(i, inum, AttributeNames.DISPLAY_NAME));
+            } else if (violation != null) {
+                errors.add(violation);
+            } else if (indexByInum.putIfAbsent(inum, i) != null) {
+                errors.add(BulkItemResult.failure(i, inum, Response.Status.CONFLICT.getStatusCode(),
+                        "Duplicate inum in request"));
+            }
+        }
+        errors.addAll(getNotFoundResults(indexByInum));
+        if (!errors.isEmpty()) {
+            return getBulkValidationError(errors);
+        }
+
+        List<BulkItemResult> results = bulkOperationService.execute(clients, (index, client) -> {
+            String inum = client.getClientId();
+            try {
+                client.setBaseDn(clientService.getDnForClient(inum));
+                client.setDeletable(client.getExpirationDate() != null);
+                if (client.getClientSecret() != null) {
+                    client.setClientSecret(encryptionService.encrypt(client.getClientSecret()));
+                }
+                clientService.updateClient(client);
+                return BulkItemResult.success(index, inum, Response.Status.OK.getStatusCode());
+            } catch (Exception ex) {
+                log.error("Failed to update client " + inum, ex);
+                return BulkItemResult.failure(index, inum, Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+                        ex.getMessage());
+            }
+        });
+        return Response.ok(results).build();
+    }
+
+    @DELETE
+    @Path(ApiConstants.BULK)
+    @Consumes({ MediaType.APPLICATION_JSON, ApiConstants.APPLICATION_NDJSON })
+    @ProtectedApi(scopes = { ApiAccessConstants.OPENID_CLIENTS_DELETE_ACCESS })
+    public Response deleteClients(InputStream body) throws IOException {
+        List<String> inums = bulkOperationService.readItems(body, String.class);
+        log.debug("Clients to be deleted in bulk - count = " + inums.size());
+
+        List<BulkItemResult> errors = new ArrayList<>();
+        Map<String, Integer> indexByInum = new HashMap<>();
+        for (int i = 0; i < inums.size(); i++) {
+            if (indexByInum.putIfAbsent(inums.get(i), i) != null) {
+                errors.add(BulkItemResult.failure(i, inums.get(i), Response.Status.CONFLICT.getStatusCode(),
+                        "Duplicate inum in request"));
+            }
+        }
+        errors.addAll(getNotFoundResults(indexByInum));
+        if (!errors.isEmpty()) {
+            return getBulkValidationError(errors);
+        }
+
+        List<BulkItemResult> results = bulkOperationService.execute(inums, (index, inum) -> {
+            try {
+                clientService.removeClientByInum(inum);
+                return BulkItemResult.success(index, inum, Response.Status.NO_CONTENT.getStatusCode());
+            } catch (Exception ex) {
+                log.error("Failed to delete client " + inum, ex);
+                return BulkItemResult.failure(index, inum, Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+                        ex.getMessage());
+            }
+        });
+        return Response.ok(results).build();
+    }
+
+    private List<BulkItemResult> getNotFoundResults(Map<String, Integer> indexByInum) {
+        Set<String> existingInums = clientService.findExistingInums(indexByInum.keySet());
+        List<BulkItemResult> notFound = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : indexByInum.entrySet()) {
+            if (!existingInums.contains(entry.getKey())) {
+                notFound.add(BulkItemResult.failure(entry.getValue(), entry.getKey(),
+                        Response.Status.NOT_FOUND.getStatusCode(),
+                        "The requested " + OPENID_CONNECT_CLIENT + " doesn't exist"));
+            }
+        }
+        return notFound;
+    }
+
+    private List<Client> getClients(List<Client> clients, String[] returnAttributes, boolean includeSecrets) {
+        if (clients != null && !clients.isEmpty()) {
+            if (!includeSecrets) {
+                clients.forEach(this::clearSecret);
+            } else if (isSecretRead(returnAttributes)) {
+                clientSecretService.decryptSecrets(clients);
+            }
         }
         return clients;
     }
 
+    private UnaryOperator<Client> getSecretTransformer(String[] returnAttributes, boolean includeSecrets) {
+        if (!includeSecrets) {
+            return this::clearSecret;
+        }
+        return (isSecretRead(returnAttributes) ? clientSecretService::decryptSecret : UnaryOperator.identity());
+    }
+
+    // A projection without the secret leaves nothing to decrypt
+    private static boolean isSecretRead(String[] returnAttributes) {
+        return returnAttributes == null || ArrayUtils.contains(returnAttributes, CLIENT_SECRET_ATTRIBUTE);
+    }
+
+    private Client clearSecret(Client client) {
+        client.setClientSecret(null);
+        return client;
+    }
+
 }
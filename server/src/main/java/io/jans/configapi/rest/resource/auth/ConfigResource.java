@@ -9,7 +9,10 @@ package io.jans.configapi.rest.resource.auth;
 import io.jans.as.model.config.Conf;
 import io.jans.as.model.configuration.AppConfiguration;
 import io.jans.configapi.filters.ProtectedApi;
+import io.jans.configapi.service.auth.ConfigurationResponseCache;
 import io.jans.configapi.service.auth.ConfigurationService;
+import io.jans.configapi.service.auth.ConfigurationService.ConfigurationSnapshot;
+import io.jans.configapi.service.auth.WriteResponseService;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
 import io.jans.configapi.util.Jackson;
@@ -17,7 +20,11 @@ import io.jans.configapi.util.Jackson;
 import javax.inject.Inject;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
 import org.json.JSONObject;
@@ -34,30 +41,48 @@ public class ConfigResource extends BaseResource {
     @Inject
     ConfigurationService configurationService;
 
+    @Inject
+    ConfigurationResponseCache configurationResponseCache;
+
+    @Inject
+    WriteResponseService writeResponseService;
+
+    @Context
+    Request request;
+
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.JANS_AUTH_CONFIG_READ_ACCESS })
-    public Response getAppConfiguration() {
-        AppConfiguration appConfiguration = configurationService.find();
-        log.debug("ConfigResource::getAppConfiguration() appConfiguration - " + appConfiguration);
-        return Response.ok(appConfiguration).build();
+    public Response getAppConfiguration(@HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding)
+            throws Exception {
+        final ConfigurationSnapshot<Conf> snapshot = configurationService.getConfSnapshot();
+        log.debug("ConfigResource::getAppConfiguration() revision - " + snapshot.getEntityTag());
+        return configurationResponseCache.getResponse(request, acceptEncoding,
+                ApiConstants.JANS_AUTH + ApiConstants.CONFIG, snapshot.getEntityTag(),
+                () -> snapshot.copy().getDynamic());
     }
 
     @PATCH
     @Consumes(MediaType.APPLICATION_JSON_PATCH_JSON)
     @ProtectedApi(scopes = { ApiAccessConstants.JANS_AUTH_CONFIG_WRITE_ACCESS })
-    public Response patchAppConfigurationProperty(@NotNull String requestString) throws Exception {
+    public Response patchAppConfigurationProperty(@NotNull String requestString,
+            @HeaderParam(ApiConstants.PREFER) String prefer) throws Exception {
         log.debug("AUTH CONF details to patch - requestString = " + requestString);
-        Conf conf = configurationService.findConf();
-        AppConfiguration appConfiguration = configurationService.find();
+        Conf conf = configurationService.loadConf();
+        checkPreconditions(request, configurationService.getEntityTag(conf));
+        AppConfiguration appConfiguration = conf.getDynamic();
         log.debug("AUTH CONF details BEFORE patch - appConfiguration = " + appConfiguration);
         appConfiguration = Jackson.applyPatch(requestString, conf.getDynamic());
         log.debug("AUTH CONF details BEFORE patch merge - appConfiguration = " + appConfiguration);
         conf.setDynamic(appConfiguration);
 
         configurationService.merge(conf);
-        appConfiguration = configurationService.find();
+        EntityTag entityTag = configurationService.getEntityTag(conf);
+        if (writeResponseService.isReturnMinimal(prefer)) {
+            return writeResponseService.getMinimalResponse(entityTag);
+        }
+        appConfiguration = writeResponseService.getWrittenEntity(appConfiguration, configurationService::find);
         log.debug("AUTH CONF details AFTER patch merge - appConfiguration = " + appConfiguration);
-        return Response.ok(appConfiguration).build();
+        return Response.ok(appConfiguration).tag(entityTag).build();
     }
 
     @GET
@@ -6,10 +6,11 @@
 
 package io.jans.configapi.rest.resource.auth;
 
-import io.jans.as.common.service.common.ConfigurationService;
 import io.jans.as.common.service.common.EncryptionService;
 import io.jans.as.persistence.model.configuration.GluuConfiguration;
 import io.jans.configapi.filters.ProtectedApi;
+import io.jans.configapi.service.auth.ConfigurationService;
+import io.jans.configapi.service.auth.ConfigurationService.ConfigurationSnapshot;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
 import io.jans.model.SmtpConfiguration;
@@ -19,7 +20,10 @@ import io.jans.util.security.StringEncrypter.EncryptionException;
 import javax.inject.Inject;
 import javax.validation.Valid;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.util.Objects;
 
@@ -46,12 +50,18 @@ public class ConfigSmtpResource extends BaseResource {
     @Inject
     MailService mailService;
 
+    @Context
+    Request request;
+
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.SMTP_READ_ACCESS })
     public Response getSmtpServerConfiguration() {
-        SmtpConfiguration smtpConfiguration = configurationService.getConfiguration().getSmtpConfiguration();
+        ConfigurationSnapshot<GluuConfiguration> snapshot = configurationService.getGluuConfigurationSnapshot();
+        checkPreconditions(request, snapshot.getEntityTag());
+        SmtpConfiguration smtpConfiguration = snapshot.copy().getSmtpConfiguration();
         log.debug("getSmtpServerConfiguration() - smtpConfiguration = " + smtpConfiguration + "\n\n");
-        return Response.ok(Objects.requireNonNullElseGet(smtpConfiguration, SmtpConfiguration::new)).build();
+        return Response.ok(Objects.requireNonNullElseGet(smtpConfiguration, SmtpConfiguration::new))
+                .tag(snapshot.getEntityTag()).build();
     }
 
     @POST
@@ -63,12 +73,8 @@ public class ConfigSmtpResource extends BaseResource {
             smtpConfiguration.setPassword(encryptionService.encrypt(password));
         }
         log.debug("setupSmtpConfiguration() - 2 - smtpConfiguration = " + smtpConfiguration + "\n\n");
-        GluuConfiguration configurationUpdate = configurationService.getConfiguration();
-        log.debug("setupSmtpConfiguration() - 1 - configurationUpdate = " + configurationUpdate + "\n\n");
-        configurationUpdate.setSmtpConfiguration(smtpConfiguration);
-        configurationService.updateConfiguration(configurationUpdate);
-        return Response.status(Response.Status.CREATED)
-                .entity(configurationService.getConfiguration().getSmtpConfiguration()).build();
+        EntityTag entityTag = mergeSmtpConfiguration(smtpConfiguration);
+        return Response.status(Response.Status.CREATED).entity(smtpConfiguration).tag(entityTag).build();
     }
 
     @PUT
@@ -80,11 +86,8 @@ public class ConfigSmtpResource extends BaseResource {
             smtpConfiguration.setPassword(encryptionService.encrypt(password));
         }
         log.debug("updateSmtpConfiguration() - 2 - smtpConfiguration = " + smtpConfiguration + "\n\n");
-        GluuConfiguration configurationUpdate = configurationService.getConfiguration();
-        log.debug("updateSmtpConfiguration() - 1 - configurationUpdate = " + configurationUpdate + "\n\n");
-        configurationUpdate.setSmtpConfiguration(smtpConfiguration);
-        configurationService.updateConfiguration(configurationUpdate);
-        return Response.ok(configurationService.getConfiguration().getSmtpConfiguration()).build();
+        EntityTag entityTag = mergeSmtpConfiguration(smtpConfiguration);
+        return Response.ok(smtpConfiguration).tag(entityTag).build();
     }
 
     @POST
@@ -92,7 +95,7 @@ public class ConfigSmtpResource extends BaseResource {
     @ProtectedApi(scopes = { ApiAccessConstants.SMTP_READ_ACCESS })
     public Response testSmtpConfiguration() throws EncryptionException {
         log.debug("\n ConfigSmtpResource::testSmtpConfiguration() - 1 - \n\n");
-        SmtpConfiguration smtpConfiguration = configurationService.getConfiguration().getSmtpConfiguration();
+        SmtpConfiguration smtpConfiguration = configurationService.findGluuConfiguration().getSmtpConfiguration();
         log.debug("\n ConfigSmtpResource::testSmtpConfiguration() - 1 - smtpConfiguration = " + smtpConfiguration
                 + "\n\n");
         smtpConfiguration.setPasswordDecrypted(encryptionService.decrypt(smtpConfiguration.getPassword()));
@@ -107,10 +110,13 @@ public class ConfigSmtpResource extends BaseResource {
     @DELETE
     @ProtectedApi(scopes = { ApiAccessConstants.SMTP_DELETE_ACCESS })
     public Response removeSmtpConfiguration() {
-        GluuConfiguration configurationUpdate = configurationService.getConfiguration();
-        configurationUpdate.setSmtpConfiguration(new SmtpConfiguration());
-        configurationService.updateConfiguration(configurationUpdate);
-        return Response.noContent().build();
+        EntityTag entityTag = mergeSmtpConfiguration(new SmtpConfiguration());
+        return Response.noContent().tag(entityTag).build();
+    }
+
+    private EntityTag mergeSmtpConfiguration(SmtpConfiguration smtpConfiguration) {
+        return configurationService.mergeGluuConfiguration(getPreconditions(request),
+                configurationUpdate -> configurationUpdate.setSmtpConfiguration(smtpConfiguration));
     }
 
 }
@@ -9,6 +9,7 @@ package io.jans.configapi.rest.resource.auth;
 import com.couchbase.client.java.env.DefaultCouchbaseEnvironment;
 import com.google.common.base.Joiner;
 import io.jans.configapi.filters.ProtectedApi;
+import io.jans.configapi.service.auth.ConfigurationService;
 import io.jans.configapi.service.auth.CouchbaseConfService;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
@@ -21,7 +22,10 @@ import javax.inject.Inject;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.util.Optional;
 import java.util.Properties;
@@ -37,10 +41,17 @@ public class CouchbaseConfigurationResource extends BaseResource {
     @Inject
     CouchbaseConfService couchbaseConfService;
 
+    @Inject
+    ConfigurationService configurationService;
+
+    @Context
+    Request request;
+
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.DATABASE_COUCHBASE_READ_ACCESS })
     public Response get() {
-        return Response.ok(this.couchbaseConfService.findAll()).build();
+        EntityTag entityTag = getEntityTag();
+        return Response.ok(this.couchbaseConfService.findAll()).tag(entityTag).build();
     }
 
     @GET
@@ -48,16 +59,17 @@ public class CouchbaseConfigurationResource extends BaseResource {
     @ProtectedApi(scopes = { ApiAccessConstants.DATABASE_COUCHBASE_READ_ACCESS })
     public Response getWithName(@PathParam(ApiConstants.NAME) String name) {
         log.debug("CouchbaseConfigurationResource::getWithName() -  name = " + name + "\n\n");
-        return Response.ok(findByName(name)).build();
+        EntityTag entityTag = getEntityTag();
+        return Response.ok(findByName(name)).tag(entityTag).build();
     }
 
     @POST
     @ProtectedApi(scopes = { ApiAccessConstants.DATABASE_COUCHBASE_WRITE_ACCESS })
     public Response add(@Valid @NotNull CouchbaseConnectionConfiguration conf) {
         log.debug("COUCHBASE details to be added - conf = " + conf);
-        couchbaseConfService.save(conf);
+        EntityTag entityTag = couchbaseConfService.save(conf, getPreconditions(request));
         conf = findByName(conf.getConfigId());
-        return Response.status(Response.Status.CREATED).entity(conf).build();
+        return Response.status(Response.Status.CREATED).entity(conf).tag(entityTag).build();
     }
 
     @PUT
@@ -65,8 +77,8 @@ public class CouchbaseConfigurationResource extends BaseResource {
     public Response update(@Valid @NotNull CouchbaseConnectionConfiguration conf) {
         log.debug("COUCHBASE details to be updated - conf = " + conf);
         findByName(conf.getConfigId());
-        couchbaseConfService.save(conf);
-        return Response.ok(conf).build();
+        EntityTag entityTag = couchbaseConfService.save(conf, getPreconditions(request));
+        return Response.ok(conf).tag(entityTag).build();
     }
 
     @DELETE
@@ -76,8 +88,8 @@ public class CouchbaseConfigurationResource extends BaseResource {
         log.debug("COUCHBASE to be deleted - name = " + name);
         findByName(name);
         log.trace("Delete configuration by name " + name);
-        this.couchbaseConfService.remove(name);
-        return Response.noContent().build();
+        EntityTag entityTag = this.couchbaseConfService.remove(name, getPreconditions(request));
+        return Response.noContent().tag(entityTag).build();
     }
 
     @PATCH
@@ -89,8 +101,8 @@ public class CouchbaseConfigurationResource extends BaseResource {
         CouchbaseConnectionConfiguration conf = findByName(name);
         log.info("Patch configuration by name " + name);
         conf = Jackson.applyPatch(requestString, conf);
-        couchbaseConfService.save(conf);
-        return Response.ok(conf).build();
+        EntityTag entityTag = couchbaseConfService.save(conf, getPreconditions(request));
+        return Response.ok(conf).tag(entityTag).build();
     }
 
     @POST
@@ -120,4 +132,14 @@ public class CouchbaseConfigurationResource extends BaseResource {
         }
         return optional.get();
     }
+
+    /**
+     * Tag of the configuration the connections are stored in; a 304 ends the
+     * request when it matches If-None-Match.
+     */
+    private EntityTag getEntityTag() {
+        EntityTag entityTag = configurationService.getGluuConfigurationSnapshot().getEntityTag();
+        checkPreconditions(request, entityTag);
+        return entityTag;
+    }
 }
@@ -7,6 +7,7 @@
 package io.jans.configapi.rest.resource.auth;
 
 import io.jans.configapi.filters.ProtectedApi;
+import io.jans.configapi.service.auth.EntryStreamingService;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
 import io.jans.model.custom.script.CustomScriptType;
@@ -39,10 +40,20 @@ public class CustomScriptResource extends BaseResource {
     @Inject
     CustomScriptService customScriptService;
 
+    @Inject
+    EntryStreamingService entryStreamingService;
+
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.SCRIPTS_READ_ACCESS })
-    public Response getAllCustomScripts() {
-        List<CustomScript> customScripts = customScriptService.findAllCustomScripts(null);
+    public Response getAllCustomScripts(
+            @DefaultValue("false") @QueryParam(value = ApiConstants.STREAM) boolean stream,
+            @QueryParam(value = ApiConstants.FIELDS) String fields) {
+        String[] returnAttributes = getReturnAttributes(CustomScript.class, fields);
+        if (stream) {
+            return Response.ok(entryStreamingService.streamEntries(customScriptService.baseDn(), CustomScript.class,
+                    null, returnAttributes)).build();
+        }
+        List<CustomScript> customScripts = customScriptService.findAllCustomScripts(returnAttributes);
         return Response.ok(customScripts).build();
     }
 
@@ -63,11 +74,18 @@ public class CustomScriptResource extends BaseResource {
     @GET
     @Path(PATH_SEPARATOR + ApiConstants.INUM + PATH_SEPARATOR + ApiConstants.INUM_PATH)
     @ProtectedApi(scopes = { ApiAccessConstants.SCRIPTS_READ_ACCESS })
-    public Response getCustomScriptByInum(@PathParam(ApiConstants.INUM) @NotNull String inum) {
-        log.debug("CustomScript to be fetched - inum = " + inum);
+    public Response getCustomScriptByInum(@PathParam(ApiConstants.INUM) @NotNull String inum,
+            @QueryParam(value = ApiConstants.FIELDS) String fields) {
+        log.debug("CustomScript to be fetched - inum = " + inum + " , fields = " + fields);
+        String[] returnAttributes = getReturnAttributes(CustomScript.class, fields);
         CustomScript script = null;
         try {
-            script = this.customScriptService.getScriptByInum(inum);
+            if (returnAttributes != null) {
+                script = this.customScriptService.getCustomScriptByDn(customScriptService.buildDn(inum),
+                        returnAttributes);
+            } else {
+                script = this.customScriptService.getScriptByInum(inum);
+            }
         } catch (Exception ex) {
             ex.printStackTrace();
             if (ex.getMessage().contains("Failed to find entry")) {
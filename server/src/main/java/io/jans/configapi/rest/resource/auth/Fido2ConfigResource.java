@@ -8,6 +8,7 @@ package io.jans.configapi.rest.resource.auth;
 
 import io.jans.config.oxtrust.DbApplicationConfiguration;
 import io.jans.configapi.filters.ProtectedApi;
+import io.jans.configapi.service.auth.ConfigurationResponseCache;
 import io.jans.configapi.service.auth.Fido2Service;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
@@ -16,7 +17,11 @@ import io.jans.configapi.util.Jackson;
 import javax.inject.Inject;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
 import org.slf4j.Logger;
@@ -34,11 +39,25 @@ public class Fido2ConfigResource extends BaseResource {
     @Inject
     Fido2Service fido2Service;
 
+    @Inject
+    ConfigurationResponseCache configurationResponseCache;
+
+    @Context
+    Request request;
+
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.FIDO2_CONFIG_READ_ACCESS })
-    public Response getFido2Configuration() throws Exception {
-        DbApplicationConfiguration dbApplicationConfiguration = this.fido2Service.find();
-        return Response.ok(Jackson.asJsonNode(dbApplicationConfiguration.getDynamicConf())).build();
+    public Response getFido2Configuration(@HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding)
+            throws Exception {
+        // The whole entry is read only when the revision has no cached response, or
+        // every time when the revision cannot be read
+        long revision = this.fido2Service.findRevision();
+        EntityTag entityTag = (revision >= 0 ? new EntityTag(Long.toString(revision)) : null);
+        return configurationResponseCache.getResponse(request, acceptEncoding, ApiConstants.FIDO2 + ApiConstants.CONFIG,
+                entityTag, () -> {
+                    DbApplicationConfiguration dbApplicationConfiguration = this.fido2Service.find();
+                    return Jackson.asJsonNode(dbApplicationConfiguration.getDynamicConf());
+                });
     }
 
     @PUT
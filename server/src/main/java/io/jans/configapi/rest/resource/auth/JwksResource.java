@@ -11,7 +11,10 @@ import io.jans.as.model.config.Conf;
 import io.jans.as.model.config.WebKeysConfiguration;
 import io.jans.as.model.jwk.JSONWebKey;
 import io.jans.configapi.filters.ProtectedApi;
+import io.jans.configapi.service.auth.ConfigurationResponseCache;
 import io.jans.configapi.service.auth.ConfigurationService;
+import io.jans.configapi.service.auth.ConfigurationService.ConfigurationSnapshot;
+import io.jans.configapi.service.auth.WriteResponseService;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
 import io.jans.configapi.util.Jackson;
@@ -19,7 +22,11 @@ import io.jans.configapi.util.Jackson;
 import javax.inject.Inject;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
 
@@ -39,36 +46,59 @@ public class JwksResource extends BaseResource {
     @Inject
     ConfigurationService configurationService;
 
+    @Inject
+    ConfigurationResponseCache configurationResponseCache;
+
+    @Inject
+    WriteResponseService writeResponseService;
+
+    @Context
+    Request request;
+
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.JWKS_READ_ACCESS })
-    public Response get() {
-        final String json = configurationService.findConf().getWebKeys().toString();
-        return Response.ok(json).build();
+    public Response get(@HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) throws Exception {
+        final ConfigurationSnapshot<Conf> snapshot = configurationService.getConfSnapshot();
+        return configurationResponseCache.getResponse(request, acceptEncoding, ApiConstants.CONFIG + ApiConstants.JWKS,
+                snapshot.getEntityTag(), () -> snapshot.copy().getWebKeys().toString());
     }
 
     @PUT
     @ProtectedApi(scopes = { ApiAccessConstants.JWKS_WRITE_ACCESS })
-    public Response put(WebKeysConfiguration webkeys) {
+    public Response put(WebKeysConfiguration webkeys, @HeaderParam(ApiConstants.PREFER) String prefer) {
         log.debug("JWKS details to be updated - webkeys = "+webkeys);
-        final Conf conf = configurationService.findConf();
+        final Conf conf = configurationService.loadConf();
+        checkPreconditions(request, configurationService.getEntityTag(conf));
         conf.setWebKeys(webkeys);
         configurationService.merge(conf);
-        final String json = configurationService.findConf().getWebKeys().toString();
-        return Response.ok(json).build();
+        final EntityTag entityTag = configurationService.getEntityTag(conf);
+        if (writeResponseService.isReturnMinimal(prefer)) {
+            return writeResponseService.getMinimalResponse(entityTag);
+        }
+        final String json = writeResponseService.getWrittenEntity(conf, configurationService::findConf).getWebKeys()
+                .toString();
+        return Response.ok(json).tag(entityTag).build();
     }
 
     @PATCH
     @Consumes(MediaType.APPLICATION_JSON_PATCH_JSON)
     @ProtectedApi(scopes = { ApiAccessConstants.JWKS_WRITE_ACCESS })
-    public Response patch(String requestString) throws JsonPatchException, IOException {
+    public Response patch(String requestString, @HeaderParam(ApiConstants.PREFER) String prefer)
+            throws JsonPatchException, IOException {
         log.debug("JWKS details to be patched - requestString = "+requestString);
-        final Conf conf = configurationService.findConf();
+        final Conf conf = configurationService.loadConf();
+        checkPreconditions(request, configurationService.getEntityTag(conf));
         WebKeysConfiguration webKeys = conf.getWebKeys();
         webKeys = Jackson.applyPatch(requestString, webKeys);
         conf.setWebKeys(webKeys);
         configurationService.merge(conf);
-        final String json = configurationService.findConf().getWebKeys().toString();
-        return Response.ok(json).build();
+        final EntityTag entityTag = configurationService.getEntityTag(conf);
+        if (writeResponseService.isReturnMinimal(prefer)) {
+            return writeResponseService.getMinimalResponse(entityTag);
+        }
+        final String json = writeResponseService.getWrittenEntity(conf, configurationService::findConf).getWebKeys()
+                .toString();
+        return Response.ok(json).tag(entityTag).build();
     }
     
     @POST
@@ -76,8 +106,9 @@ public class JwksResource extends BaseResource {
     @Path(ApiConstants.KEY_PATH)
     public Response getKeyById(@NotNull JSONWebKey jwk) {
         log.debug("Add a new Key to the JWKS = "+jwk); 
-        Conf conf = configurationService.findConf();
-        WebKeysConfiguration webkeys = configurationService.findConf().getWebKeys();
+        Conf conf = configurationService.loadConf();
+        checkPreconditions(request, configurationService.getEntityTag(conf));
+        WebKeysConfiguration webkeys = conf.getWebKeys();
         log.debug("WebKeysConfiguration before addding new key =" + webkeys);
         
         //Reject if key with same kid already exists
@@ -91,8 +122,8 @@ public class JwksResource extends BaseResource {
         webkeys.getKeys().add(jwk);
         conf.setWebKeys(webkeys);
         configurationService.merge(conf);
-        webkeys = configurationService.findConf().getWebKeys();
-        return Response.status(Response.Status.CREATED).entity(jwk).build();
+        return Response.status(Response.Status.CREATED).entity(jwk).tag(configurationService.getEntityTag(conf))
+                .build();
     }
     
     @GET
@@ -100,10 +131,13 @@ public class JwksResource extends BaseResource {
     @Path(ApiConstants.KID_PATH)
     public Response getKeyById(@PathParam(ApiConstants.KID) @NotNull String kid) {
         log.debug("Fetch JWK details by kid = "+kid);        
-        WebKeysConfiguration webkeys = configurationService.findConf().getWebKeys();
+        Conf conf = configurationService.findConf();
+        EntityTag entityTag = configurationService.getEntityTag(conf);
+        checkPreconditions(request, entityTag);
+        WebKeysConfiguration webkeys = conf.getWebKeys();
         log.debug("WebKeysConfiguration before addding new key =" + webkeys);
         JSONWebKey jwk = getJSONWebKey(webkeys, kid);
-        return Response.ok(jwk).build();
+        return Response.ok(jwk).tag(entityTag).build();
     }
       
     @PATCH
@@ -112,8 +146,9 @@ public class JwksResource extends BaseResource {
     @Path(ApiConstants.KID_PATH)
     public Response patch(@PathParam(ApiConstants.KID) @NotNull String kid, @NotNull String requestString) throws JsonPatchException, IOException {
         log.debug("JWKS details to be patched for kid = "+kid+" ,requestString = "+requestString);
-        Conf conf = configurationService.findConf();
-        WebKeysConfiguration webkeys = configurationService.findConf().getWebKeys();
+        Conf conf = configurationService.loadConf();
+        checkPreconditions(request, configurationService.getEntityTag(conf));
+        WebKeysConfiguration webkeys = conf.getWebKeys();
         JSONWebKey jwk = getJSONWebKey(webkeys, kid);
         if(jwk==null) {
             throw new NotFoundException(getNotFoundError(
@@ -132,7 +167,7 @@ public class JwksResource extends BaseResource {
         conf.getWebKeys().getKeys().add(jwk);
         configurationService.merge(conf);
         
-        return Response.ok(jwk).build();
+        return Response.ok(jwk).tag(configurationService.getEntityTag(conf)).build();
     }
         
     @DELETE
@@ -140,8 +175,9 @@ public class JwksResource extends BaseResource {
     @Path(ApiConstants.KID_PATH)
     public Response deleteKey(@PathParam(ApiConstants.KID) @NotNull String kid) {
         log.debug("Key to be to be deleted - kid = "+kid);
-        final Conf conf = configurationService.findConf();
-        WebKeysConfiguration webkeys = configurationService.findConf().getWebKeys();
+        final Conf conf = configurationService.loadConf();
+        checkPreconditions(request, configurationService.getEntityTag(conf));
+        WebKeysConfiguration webkeys = conf.getWebKeys();
         JSONWebKey jwk = getJSONWebKey(webkeys, kid);
         if(jwk==null) {
             throw new NotFoundException(getNotFoundError(
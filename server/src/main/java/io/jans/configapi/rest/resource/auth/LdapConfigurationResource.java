@@ -8,6 +8,7 @@ package io.jans.configapi.rest.resource.auth;
 
 import com.github.fge.jsonpatch.JsonPatchException;
 import io.jans.configapi.filters.ProtectedApi;
+import io.jans.configapi.service.auth.ConfigurationService;
 import io.jans.configapi.service.auth.LdapConfigurationService;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
@@ -20,7 +21,10 @@ import javax.inject.Inject;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.util.List;
@@ -40,19 +44,27 @@ public class LdapConfigurationResource extends BaseResource {
     @Inject
     ConnectionStatus connectionStatus;
 
+    @Inject
+    ConfigurationService configurationService;
+
+    @Context
+    Request request;
+
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.DATABASE_LDAP_READ_ACCESS })
     public Response getLdapConfiguration() {
+        EntityTag entityTag = getEntityTag();
         List<GluuLdapConfiguration> ldapConfigurationList = this.ldapConfigurationService.findLdapConfigurations();
-        return Response.ok(ldapConfigurationList).build();
+        return Response.ok(ldapConfigurationList).tag(entityTag).build();
     }
 
     @GET
     @Path(ApiConstants.NAME_PARAM_PATH)
     @ProtectedApi(scopes = { ApiAccessConstants.DATABASE_LDAP_READ_ACCESS })
     public Response getLdapConfigurationByName(@PathParam(ApiConstants.NAME) String name) {
+        EntityTag entityTag = getEntityTag();
         GluuLdapConfiguration ldapConfiguration = findLdapConfigurationByName(name);
-        return Response.ok(ldapConfiguration).build();
+        return Response.ok(ldapConfiguration).tag(entityTag).build();
     }
 
     @POST
@@ -66,9 +78,9 @@ public class LdapConfigurationResource extends BaseResource {
             throw new NotAcceptableException(getNotAcceptableException(
                     "Ldap Configuration with same name - '" + ldapConfiguration.getConfigId() + "' already exists!"));
         } catch (NotFoundException ne) {
-            this.ldapConfigurationService.save(ldapConfiguration);
+            EntityTag entityTag = this.ldapConfigurationService.save(ldapConfiguration, getPreconditions(request));
             ldapConfiguration = findLdapConfigurationByName(ldapConfiguration.getConfigId());
-            return Response.status(Response.Status.CREATED).entity(ldapConfiguration).build();
+            return Response.status(Response.Status.CREATED).entity(ldapConfiguration).tag(entityTag).build();
         }
     }
 
@@ -77,8 +89,8 @@ public class LdapConfigurationResource extends BaseResource {
     public Response updateLdapConfiguration(@Valid @NotNull GluuLdapConfiguration ldapConfiguration) {
         log.debug("LDAP configuration to be updated - ldapConfiguration = " + ldapConfiguration);
         findLdapConfigurationByName(ldapConfiguration.getConfigId());
-        this.ldapConfigurationService.update(ldapConfiguration);
-        return Response.ok(ldapConfiguration).build();
+        EntityTag entityTag = updateLdapConfiguration(ldapConfiguration);
+        return Response.ok(ldapConfiguration).tag(entityTag).build();
     }
 
     @DELETE
@@ -88,8 +100,13 @@ public class LdapConfigurationResource extends BaseResource {
         log.debug("LDAP configuration to be deleted - name = " + name);
         findLdapConfigurationByName(name);
         log.info("Delete Ldap Configuration by name " + name);
-        this.ldapConfigurationService.remove(name);
-        return Response.noContent().build();
+        EntityTag entityTag;
+        try {
+            entityTag = this.ldapConfigurationService.remove(name, getPreconditions(request));
+        } catch (NoSuchElementException ex) {
+            throw new NotFoundException(getNotFoundError("Ldap Configuration - '" + name + "'"));
+        }
+        return Response.noContent().tag(entityTag).build();
     }
 
     @PATCH
@@ -102,8 +119,8 @@ public class LdapConfigurationResource extends BaseResource {
         GluuLdapConfiguration ldapConfiguration = findLdapConfigurationByName(name);
         log.info("Patch Ldap Configuration by name " + name);
         ldapConfiguration = Jackson.applyPatch(requestString, ldapConfiguration);
-        this.ldapConfigurationService.update(ldapConfiguration);
-        return Response.ok(ldapConfiguration).build();
+        EntityTag entityTag = updateLdapConfiguration(ldapConfiguration);
+        return Response.ok(ldapConfiguration).tag(entityTag).build();
     }
 
     @POST
@@ -117,6 +134,16 @@ public class LdapConfigurationResource extends BaseResource {
         return Response.ok(status).build();
     }
 
+    // The entry may have been removed on another node since it was looked up
+    private EntityTag updateLdapConfiguration(GluuLdapConfiguration ldapConfiguration) {
+        try {
+            return this.ldapConfigurationService.update(ldapConfiguration, getPreconditions(request));
+        } catch (NoSuchElementException ex) {
+            throw new NotFoundException(
+                    getNotFoundError("Ldap Configuration - '" + ldapConfiguration.getConfigId() + "'"));
+        }
+    }
+
     private GluuLdapConfiguration findLdapConfigurationByName(String name) {
         try {
             return this.ldapConfigurationService.findByName(name);
@@ -125,4 +152,14 @@ public class LdapConfigurationResource extends BaseResource {
             throw new NotFoundException(getNotFoundError("Ldap Configuration - '" + name + "'"));
         }
     }
+
+    /**
+     * Tag of the configuration the LDAP servers are stored in; a 304 ends the
+     * request when it matches If-None-Match.
+     */
+    private EntityTag getEntityTag() {
+        EntityTag entityTag = configurationService.getGluuConfigurationSnapshot().getEntityTag();
+        checkPreconditions(request, entityTag);
+        return entityTag;
+    }
 }
@@ -10,7 +10,9 @@ import io.jans.as.model.config.Conf;
 import io.jans.as.model.configuration.AppConfiguration;
 import io.jans.configapi.filters.ProtectedApi;
 import io.jans.configapi.rest.model.Logging;
+import io.jans.configapi.service.auth.ConfigurationResponseCache;
 import io.jans.configapi.service.auth.ConfigurationService;
+import io.jans.configapi.service.auth.ConfigurationService.ConfigurationSnapshot;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
 import org.apache.commons.lang.StringUtils;
@@ -18,7 +20,10 @@ import org.apache.commons.lang.StringUtils;
 import javax.inject.Inject;
 import javax.validation.Valid;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
 import org.slf4j.Logger;
@@ -34,17 +39,26 @@ public class LoggingResource {
     @Inject
     ConfigurationService configurationService;
 
+    @Inject
+    ConfigurationResponseCache configurationResponseCache;
+
+    @Context
+    Request request;
+
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.LOGGING_READ_ACCESS })
-    public Response getLogging() {
-        return Response.ok(this.getLoggingConfiguration()).build();
+    public Response getLogging(@HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) throws Exception {
+        final ConfigurationSnapshot<Conf> snapshot = configurationService.getConfSnapshot();
+        return configurationResponseCache.getResponse(request, acceptEncoding, ApiConstants.LOGGING,
+                snapshot.getEntityTag(), () -> this.getLoggingConfiguration(snapshot.copy().getDynamic()));
     }
 
     @PUT
     @ProtectedApi(scopes = { ApiAccessConstants.LOGGING_WRITE_ACCESS })
     public Response updateLogConf(@Valid Logging logging) {
         log.debug("LOGGING configuration to be updated -logging = " + logging);
-        Conf conf = configurationService.findConf();
+        Conf conf = configurationService.loadConf();
+        BaseResource.checkPreconditions(request, configurationService.getEntityTag(conf));
 
         if (!StringUtils.isBlank(logging.getLoggingLevel())) {
             conf.getDynamic().setLoggingLevel(logging.getLoggingLevel());
@@ -64,13 +78,12 @@ public class LoggingResource {
 
         configurationService.merge(conf);
 
-        logging = this.getLoggingConfiguration();
-        return Response.ok(logging).build();
+        logging = this.getLoggingConfiguration(conf.getDynamic());
+        return Response.ok(logging).tag(configurationService.getEntityTag(conf)).build();
     }
 
-    private Logging getLoggingConfiguration() {
+    private Logging getLoggingConfiguration(AppConfiguration appConfiguration) {
         Logging logging = new Logging();
-        AppConfiguration appConfiguration = configurationService.find();
 
         logging.setLoggingLevel(appConfiguration.getLoggingLevel());
         logging.setLoggingLayout(appConfiguration.getLoggingLayout());
@@ -10,15 +10,22 @@ import com.github.fge.jsonpatch.JsonPatchException;
 import io.jans.as.model.common.ScopeType;
 import io.jans.as.persistence.model.Scope;
 import io.jans.configapi.filters.ProtectedApi;
+import io.jans.configapi.rest.model.BulkItemResult;
+import io.jans.configapi.service.auth.BulkOperationService;
+import io.jans.configapi.service.auth.BulkOperationService.ImportWriter;
+import io.jans.configapi.service.auth.EntryStreamingService;
 import io.jans.configapi.service.auth.ScopeService;
+import io.jans.configapi.service.auth.WriteResponseService;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
 import io.jans.configapi.util.AttributeNames;
 import io.jans.configapi.util.Jackson;
+import io.jans.configapi.util.PageCursor;
 import io.jans.util.StringHelper;
 
 import javax.inject.Inject;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Context;
@@ -26,7 +33,11 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.slf4j.Logger;
@@ -51,6 +62,18 @@ public class ScopesResource extends BaseResource {
     @Inject
     ScopeService scopeService;
 
+    @Inject
+    EntryStreamingService entryStreamingService;
+
+    @Inject
+    BulkOperationService bulkOperationService;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    WriteResponseService writeResponseService;
+
     @Context
     UriInfo uriInfo;
 
@@ -58,13 +81,27 @@ public class ScopesResource extends BaseResource {
     @ProtectedApi(scopes = { ApiAccessConstants.SCOPES_READ_ACCESS })
     public Response getScopes(@DefaultValue("") @QueryParam(ApiConstants.TYPE) String type,
             @DefaultValue(DEFAULT_LIST_SIZE) @QueryParam(value = ApiConstants.LIMIT) int limit,
-            @DefaultValue("") @QueryParam(value = ApiConstants.PATTERN) String pattern) {
-        log.debug("SCOPES to be fetched type = " + type + " , limit = " + limit + " , pattern = " + pattern);
+            @DefaultValue("") @QueryParam(value = ApiConstants.PATTERN) String pattern,
+            @QueryParam(value = ApiConstants.CURSOR) String cursor,
+            @DefaultValue("false") @QueryParam(value = ApiConstants.STREAM) boolean stream,
+            @QueryParam(value = ApiConstants.FIELDS) String fields) {
+        log.debug("SCOPES to be fetched type = " + type + " , limit = " + limit + " , pattern = " + pattern
+                + " , cursor = " + cursor + " , stream = " + stream + " , fields = " + fields);
+        String[] returnAttributes = getReturnAttributes(Scope.class, fields);
+        if (stream) {
+            return Response.ok(entryStreamingService.streamEntries(scopeService.getDnForScope(null), Scope.class,
+                    scopeService.getSearchFilter(pattern, type), returnAttributes)).build();
+        }
+        if (cursor != null) {
+            checkPageLimit(limit);
+            return getPagedResponse(scopeService.getScopesPage(pattern, type, returnAttributes,
+                    PageCursor.decode(cursor), limit), uriInfo);
+        }
         final List<Scope> scopes;
         if (StringHelper.isNotEmpty(pattern)) {
-            scopes = scopeService.searchScopes(pattern, limit, type);
+            scopes = scopeService.searchScopes(pattern, limit, type, returnAttributes);
         } else {
-            scopes = scopeService.getAllScopesList(limit, type);
+            scopes = scopeService.getAllScopesList(limit, type, returnAttributes);
         }
         return Response.ok(scopes).build();
     }
@@ -72,16 +109,17 @@ public class ScopesResource extends BaseResource {
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.SCOPES_READ_ACCESS })
     @Path(ApiConstants.INUM_PATH)
-    public Response getScopeById(@NotNull @PathParam(ApiConstants.INUM) String inum) {
-        log.debug("SCOPES to be fetched - inum = " + inum);
-        Scope scope = scopeService.getScopeByInum(inum);
+    public Response getScopeById(@NotNull @PathParam(ApiConstants.INUM) String inum,
+            @QueryParam(value = ApiConstants.FIELDS) String fields) {
+        log.debug("SCOPES to be fetched - inum = " + inum + " , fields = " + fields);
+        Scope scope = scopeService.getScopeByInum(inum, getReturnAttributes(Scope.class, fields));
         checkResourceNotNull(scope, SCOPE);
         return Response.ok(scope).build();
     }
 
     @POST
     @ProtectedApi(scopes = { ApiAccessConstants.SCOPES_WRITE_ACCESS })
-    public Response createOpenidScope(@Valid Scope scope) {
+    public Response createOpenidScope(@Valid Scope scope, @HeaderParam(ApiConstants.PREFER) String prefer) {
         log.debug("SCOPE to be added - scope = " + scope);
         log.debug("SCOPE to be added - scope.getId() = " + scope.getId());
         checkNotNull(scope.getId(), AttributeNames.ID);
@@ -98,14 +136,18 @@ public class ScopesResource extends BaseResource {
             scope.setScopeType(ScopeType.OAUTH);
         }
         scopeService.addScope(scope);
-        Scope result = scopeService.getScopeByInum(inum);
+        if (writeResponseService.isReturnMinimal(prefer)) {
+            return writeResponseService.getMinimalCreatedResponse(
+                    uriInfo.getAbsolutePathBuilder().path(inum).build());
+        }
+        Scope result = writeResponseService.getWrittenEntity(scope, () -> scopeService.getScopeByInum(inum));
         log.debug("SCOPE added is - " + result.getId());
         return Response.status(Response.Status.CREATED).entity(result).build();
     }
 
     @PUT
     @ProtectedApi(scopes = { ApiAccessConstants.SCOPES_WRITE_ACCESS })
-    public Response updateScope(@Valid Scope scope) {
+    public Response updateScope(@Valid Scope scope, @HeaderParam(ApiConstants.PREFER) String prefer) {
         log.debug("SCOPE to be updated - scope = " + scope.getId());
         String inum = scope.getInum();
         checkNotNull(inum, SCOPE);
@@ -120,7 +162,10 @@ public class ScopesResource extends BaseResource {
         scope.setInum(existingScope.getInum());
         scope.setBaseDn(scopeService.getDnForScope(inum));
         scopeService.updateScope(scope);
-        Scope result = scopeService.getScopeByInum(inum);
+        if (writeResponseService.isReturnMinimal(prefer)) {
+            return writeResponseService.getMinimalResponse();
+        }
+        Scope result = writeResponseService.getWrittenEntity(scope, () -> scopeService.getScopeByInum(inum));
 
         log.debug("SCOPE updated is - " + result.getId());
         return Response.ok(result).build();
@@ -130,15 +175,18 @@ public class ScopesResource extends BaseResource {
     @Consumes(MediaType.APPLICATION_JSON_PATCH_JSON)
     @ProtectedApi(scopes = { ApiAccessConstants.SCOPES_WRITE_ACCESS })
     @Path(ApiConstants.INUM_PATH)
-    public Response patchScope(@PathParam(ApiConstants.INUM) @NotNull String inum, @NotNull String pathString)
-            throws JsonPatchException, IOException {
+    public Response patchScope(@PathParam(ApiConstants.INUM) @NotNull String inum, @NotNull String pathString,
+            @HeaderParam(ApiConstants.PREFER) String prefer) throws JsonPatchException, IOException {
         log.debug("SCOPES to be patched - inum = " + inum + " , pathString = " + pathString);
         Scope existingScope = scopeService.getScopeByInum(inum);
         checkResourceNotNull(existingScope, SCOPE);
         existingScope = Jackson.applyPatch(pathString, existingScope);
         scopeService.updateScope(existingScope);
+        if (writeResponseService.isReturnMinimal(prefer)) {
+            return writeResponseService.getMinimalResponse();
+        }
 
-        existingScope = scopeService.getScopeByInum(inum);
+        existingScope = writeResponseService.getWrittenEntity(existingScope, () -> scopeService.getScopeByInum(inum));
         log.debug("SCOPE patched is - " + existingScope.getId());
 
         return Response.ok(existingScope).build();
@@ -155,4 +203,90 @@ public class ScopesResource extends BaseResource {
         log.debug("SCOPE is deleted");
         return Response.noContent().build();
     }
+
+    @GET
+    @Path(ApiConstants.EXPORT)
+    @Produces(ApiConstants.APPLICATION_NDJSON)
+    @ProtectedApi(scopes = { ApiAccessConstants.SCOPES_READ_ACCESS })
+    public Response exportScopes(@DefaultValue("") @QueryParam(ApiConstants.TYPE) String type) {
+        log.debug("SCOPES to be exported - type = " + type);
+        return Response.ok(entryStreamingService.streamEntriesAsNdjson(scopeService.getDnForScope(null), Scope.class,
+                scopeService.getSearchFilter(null, type))).build();
+    }
+
+    @POST
+    @Path(ApiConstants.IMPORT)
+    @Consumes({ MediaType.APPLICATION_JSON, ApiConstants.APPLICATION_NDJSON })
+    @ProtectedApi(scopes = { ApiAccessConstants.SCOPES_WRITE_ACCESS })
+    public Response importScopes(@DefaultValue("false") @QueryParam(ApiConstants.DRY_RUN) boolean dryRun,
+            InputStream body) throws IOException {
+        List<Scope> scopes = bulkOperationService.readItems(body, Scope.class);
+        log.debug("SCOPES to be imported - count = " + scopes.size() + " , dryRun = " + dryRun);
+
+        List<BulkItemResult> errors = new ArrayList<>();
+        Map<String, Integer> indexByInum = new HashMap<>();
+        Map<String, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < scopes.size(); i++) {
+            Scope scope = scopes.get(i);
+            String inum = scope.getInum();
+            BulkItemResult violation = getConstraintViolationResult(i, inum, validator.validate(scope));
+            if (scope.getId() == null) {
+                errors.add(getMissingAttributeResult(i, inum, AttributeNames.ID));
+            } else if (violation != null) {
+                errors.add(violation);
+            } else if (inum != null && indexByInum.putIfAbsent(inum, i) != null) {
+                errors.add(BulkItemResult.failure(i, inum, Response.Status.CONFLICT.getStatusCode(),
+                        "Duplicate inum in request"));
+            } else if (indexById.putIfAbsent(scope.getId(), i) != null) {
+                errors.add(BulkItemResult.failure(i, inum, Response.Status.CONFLICT.getStatusCode(),
+                        "Duplicate scope id in request: " + scope.getId()));
+            }
+            // Same scope type defaults as a single create or update
+            if (scope.getScopeType() == null
+                    || ScopeType.UMA.getValue().equalsIgnoreCase(scope.getScopeType().getValue())) {
+                scope.setScopeType(ScopeType.OAUTH);
+            }
+        }
+        // A scope id must stay unique: it may only be found on the entry the item updates
+        for (Scope existingScope : scopeService.findScopesByIds(indexById.keySet())) {
+            int index = indexById.get(existingScope.getId());
+            String inum = scopes.get(index).getInum();
+            if (!existingScope.getInum().equals(inum)) {
+                errors.add(BulkItemResult.failure(index, inum, Response.Status.CONFLICT.getStatusCode(),
+                        "Scope id already used by scope " + existingScope.getInum()));
+            }
+        }
+        if (!errors.isEmpty()) {
+            return getBulkValidationError(errors);
+        }
+
+        Map<String, Scope> existingScopes = new HashMap<>();
+        for (Scope scope : scopeService.findScopesByInums(indexByInum.keySet())) {
+            existingScopes.put(scope.getInum(), scope);
+        }
+
+        List<BulkItemResult> results = bulkOperationService.importItems(scopes, existingScopes, Scope::getInum,
+                dryRun, new ImportWriter<Scope>() {
+
+                    @Override
+                    public String create(Scope scope) {
+                        // As on a single create, an update keeps the display name given
+                        if (scope.getDisplayName() == null) {
+                            scope.setDisplayName(scope.getId());
+                        }
+                        String inum = (scope.getInum() != null ? scope.getInum() : UUID.randomUUID().toString());
+                        scope.setInum(inum);
+                        scope.setDn(scopeService.getDnForScope(inum));
+                        scopeService.addScope(scope);
+                        return inum;
+                    }
+
+                    @Override
+                    public void update(Scope scope, Scope existingScope) {
+                        scope.setBaseDn(scopeService.getDnForScope(scope.getInum()));
+                        scopeService.updateScope(scope);
+                    }
+                });
+        return Response.ok(results).build();
+    }
 }
@@ -9,6 +9,7 @@ package io.jans.configapi.rest.resource.auth;
 import com.google.common.base.Joiner;
 import io.jans.orm.sql.model.SqlConnectionConfiguration;
 import io.jans.configapi.filters.ProtectedApi;
+import io.jans.configapi.service.auth.ConfigurationService;
 import io.jans.configapi.service.auth.SqlConfService;
 import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
@@ -20,7 +21,10 @@ import javax.inject.Inject;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.util.Optional;
 import java.util.Properties;
@@ -36,10 +40,17 @@ public class SqlConfigurationResource extends BaseResource {
     @Inject
     SqlConfService sqlConfService;
 
+    @Inject
+    ConfigurationService configurationService;
+
+    @Context
+    Request request;
+
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.DATABASE_SQL_READ_ACCESS })
     public Response get() {
-        return Response.ok(this.sqlConfService.findAll()).build();
+        EntityTag entityTag = getEntityTag();
+        return Response.ok(this.sqlConfService.findAll()).tag(entityTag).build();
     }
 
     @GET
@@ -47,16 +58,17 @@ public class SqlConfigurationResource extends BaseResource {
     @ProtectedApi(scopes = { ApiAccessConstants.DATABASE_SQL_READ_ACCESS })
     public Response getWithName(@PathParam(ApiConstants.NAME) String name) {
         log.debug("SqlConfigurationResource::getWithName() -  name = " + name + "\n\n");
-        return Response.ok(findByName(name)).build();
+        EntityTag entityTag = getEntityTag();
+        return Response.ok(findByName(name)).tag(entityTag).build();
     }
 
     @POST
     @ProtectedApi(scopes = { ApiAccessConstants.DATABASE_SQL_WRITE_ACCESS })
     public Response add(@Valid @NotNull SqlConnectionConfiguration conf) {
         log.debug("SQL details to be added - conf = " + conf);
-        sqlConfService.save(conf);
+        EntityTag entityTag = sqlConfService.save(conf, getPreconditions(request));
         conf = findByName(conf.getConfigId());
-        return Response.status(Response.Status.CREATED).entity(conf).build();
+        return Response.status(Response.Status.CREATED).entity(conf).tag(entityTag).build();
     }
 
     @PUT
@@ -64,8 +76,8 @@ public class SqlConfigurationResource extends BaseResource {
     public Response update(@Valid @NotNull SqlConnectionConfiguration conf) {
         log.debug("SQL details to be updated - conf = " + conf);
         findByName(conf.getConfigId());
-        sqlConfService.save(conf);
-        return Response.ok(conf).build();
+        EntityTag entityTag = sqlConfService.save(conf, getPreconditions(request));
+        return Response.ok(conf).tag(entityTag).build();
     }
 
     @DELETE
@@ -75,8 +87,8 @@ public class SqlConfigurationResource extends BaseResource {
         log.debug("SQL to be deleted - name = " + name);
         findByName(name);
         log.trace("Delete configuration by name " + name);
-        this.sqlConfService.remove(name);
-        return Response.noContent().build();
+        EntityTag entityTag = this.sqlConfService.remove(name, getPreconditions(request));
+        return Response.noContent().tag(entityTag).build();
     }
 
     @PATCH
@@ -88,8 +100,8 @@ public class SqlConfigurationResource extends BaseResource {
         SqlConnectionConfiguration conf = findByName(name);
         log.info("Patch configuration by name " + name);
         conf = Jackson.applyPatch(requestString, conf);
-        sqlConfService.save(conf);
-        return Response.ok(conf).build();
+        EntityTag entityTag = sqlConfService.save(conf, getPreconditions(request));
+        return Response.ok(conf).tag(entityTag).build();
     }
 
     @POST
@@ -136,4 +148,14 @@ public class SqlConfigurationResource extends BaseResource {
         }
         return optional.get();
     }
+
+    /**
+     * Tag of the configuration the connections are stored in; a 304 ends the
+     * request when it matches If-None-Match.
+     */
+    private EntityTag getEntityTag() {
+        EntityTag entityTag = configurationService.getGluuConfigurationSnapshot().getEntityTag();
+        checkPreconditions(request, entityTag);
+        return entityTag;
+    }
 }
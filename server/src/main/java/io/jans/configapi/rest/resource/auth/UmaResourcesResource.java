@@ -14,14 +14,17 @@ import io.jans.configapi.util.ApiAccessConstants;
 import io.jans.configapi.util.ApiConstants;
 import io.jans.configapi.util.AttributeNames;
 import io.jans.configapi.util.Jackson;
+import io.jans.configapi.util.PageCursor;
 import io.jans.orm.exception.EntryPersistenceException;
 
 import javax.inject.Inject;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
@@ -45,17 +48,31 @@ public class UmaResourcesResource extends BaseResource {
     @Inject
     UmaResourceService umaResourceService;
 
+    @Context
+    UriInfo uriInfo;
+
     @GET
     @ProtectedApi(scopes = { ApiAccessConstants.UMA_RESOURCES_READ_ACCESS })
     public Response fetchUmaResources(
             @DefaultValue(DEFAULT_LIST_SIZE) @QueryParam(value = ApiConstants.LIMIT) int limit,
-            @DefaultValue("") @QueryParam(value = ApiConstants.PATTERN) String pattern) {
-        log.debug("UMA_RESOURCE to be fetched - limit = " + limit + " , pattern = " + pattern);
+            @DefaultValue("") @QueryParam(value = ApiConstants.PATTERN) String pattern,
+            @QueryParam(value = ApiConstants.CURSOR) String cursor,
+            @QueryParam(value = ApiConstants.FIELDS) String fields) {
+        log.debug("UMA_RESOURCE to be fetched - limit = " + limit + " , pattern = " + pattern + " , cursor = "
+                + cursor + " , fields = " + fields);
+        String[] returnAttributes = getReturnAttributes(UmaResource.class, fields);
+        // Shorter patterns are ignored, with or without a cursor
+        String searchPattern = (pattern.length() >= 2 ? pattern : null);
+        if (cursor != null) {
+            checkPageLimit(limit);
+            return getPagedResponse(umaResourceService.getResourcesPage(searchPattern, returnAttributes,
+                    PageCursor.decode(cursor), limit), uriInfo);
+        }
         final List<UmaResource> resources;
-        if (!pattern.isEmpty() && pattern.length() >= 2) {
-            resources = umaResourceService.findResources(pattern, 1000);
+        if (searchPattern != null) {
+            resources = umaResourceService.findResources(searchPattern, 1000, returnAttributes);
         } else {
-            resources = umaResourceService.getAllResources(limit);
+            resources = umaResourceService.getAllResources(limit, returnAttributes);
         }
         return Response.ok(resources).build();
     }
@@ -63,9 +80,10 @@ public class UmaResourcesResource extends BaseResource {
     @GET
     @Path(ApiConstants.ID_PATH)
     @ProtectedApi(scopes = { ApiAccessConstants.UMA_RESOURCES_READ_ACCESS })
-    public Response getUmaResourceByImun(@PathParam(value = ApiConstants.ID) @NotNull String id) {
-        log.debug("UMA_RESOURCE to fetch by id = " + id);
-        return Response.ok(findOrThrow(id)).build();
+    public Response getUmaResourceByImun(@PathParam(value = ApiConstants.ID) @NotNull String id,
+            @QueryParam(value = ApiConstants.FIELDS) String fields) {
+        log.debug("UMA_RESOURCE to fetch by id = " + id + " , fields = " + fields);
+        return Response.ok(findOrThrow(id, getReturnAttributes(UmaResource.class, fields))).build();
     }
 
     @POST
@@ -84,8 +102,12 @@ public class UmaResourcesResource extends BaseResource {
     }
 
     private UmaResource findOrThrow(String id) {
+        return findOrThrow(id, null);
+    }
+
+    private UmaResource findOrThrow(String id, String[] returnAttributes) {
         try {
-            UmaResource existingResource = umaResourceService.getResourceById(id);
+            UmaResource existingResource = umaResourceService.getResourceById(id, returnAttributes);
             checkResourceNotNull(existingResource, UMA_RESOURCE);
             return existingResource;
         } catch (EntryPersistenceException e) {
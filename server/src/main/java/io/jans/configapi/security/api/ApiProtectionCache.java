@@ -1,73 +1,201 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
 package io.jans.configapi.security.api;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
-import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.collect.Maps;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.jans.as.persistence.model.Scope;
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.model.configuration.AppConfiguration;
+import io.jans.configapi.service.auth.ScopeService;
 
-import javax.enterprise.context.ApplicationScoped;
-import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
 
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.slf4j.Logger;
+
+/**
+ * Scopes protecting the API, keyed by scope id, and the scope ids required by
+ * each protected resource.
+ * <p>
+ * The scopes do not expire: every apiProtectionCacheRefreshInSeconds (0
+ * turns the refresh off) they are all reloaded in the background while the
+ * current ones keep being served. A scope that fails to reload keeps its
+ * previous value. The cache is not bounded: it only holds the scopes of the
+ * protection configuration, which are never evicted.
+ */
 @ApplicationScoped
 @Named
 public class ApiProtectionCache {
 
-    public static final int CACHE_LIFETIME = 60;
+    private static final String METRIC_PREFIX = "api_protection_cache_";
+
+    @Inject
+    Logger log;
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    @Inject
+    ScopeService scopeService;
+
+    @Inject
+    @RegistryType(type = MetricRegistry.Type.APPLICATION)
+    MetricRegistry metricRegistry;
+
+    private ScheduledExecutorService refreshExecutor;
+    private LoadingCache<String, Scope> scopeCache;
+    private Map<String, Scope> scopes;
+
+    // Built from the protection configuration, it does not change at runtime
+    private final Map<String, List<String>> resourceScopeIds = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> resources = Collections.unmodifiableMap(resourceScopeIds);
+
+    @PostConstruct
+    public void init() {
+        this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-protection-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        AppConfiguration appConfiguration = configurationFactory.getApiAppConfiguration();
+        this.scopeCache = CacheBuilder.newBuilder().recordStats().build(CacheLoader.asyncReloading(new CacheLoader<String, Scope>() {
+                    @Override
+                    public Scope load(String scopeId) {
+                        log.debug("Loading API protection scope = {}", scopeId);
+                        List<Scope> found = scopeService.searchScopesById(scopeId);
+                        if (found == null || found.isEmpty()) {
+                            throw new IllegalStateException("API protection scope not found: " + scopeId);
+                        }
+                        return found.get(0);
+                    }
+                }, refreshExecutor));
+        this.scopes = Collections.unmodifiableMap(scopeCache.asMap());
+
+        long refreshInterval = appConfiguration.getApiProtectionCacheRefreshInSeconds();
+        if (refreshInterval > 0) {
+            refreshExecutor.scheduleWithFixedDelay(this::refreshScopes, refreshInterval, refreshInterval,
+                    TimeUnit.SECONDS);
+        }
 
-    private static final Cache<String, Scope> scopeCache = CacheBuilder.newBuilder()
-            .expireAfterWrite(CACHE_LIFETIME, TimeUnit.MINUTES).build();
+        metricRegistry.register(METRIC_PREFIX + "hits", (Gauge<Long>) () -> getStats().hitCount());
+        metricRegistry.register(METRIC_PREFIX + "misses", (Gauge<Long>) () -> getStats().missCount());
+        metricRegistry.register(METRIC_PREFIX + "load_failures", (Gauge<Long>) () -> getStats().loadExceptionCount());
+        metricRegistry.register(METRIC_PREFIX + "size", (Gauge<Long>) () -> scopeCache.size());
+    }
 
-    private static final Cache<String, List<Scope>> resourceCache = CacheBuilder.newBuilder()
-            .expireAfterWrite(CACHE_LIFETIME, TimeUnit.MINUTES).build();
+    @PreDestroy
+    public void destroy() {
+        this.refreshExecutor.shutdownNow();
+    }
 
     // Scope
-    public static void removeAllScopes() {
+    public void removeAllScopes() {
         scopeCache.invalidateAll();
     }
 
-    public static Scope getScope(String scopeName) {
+    public Scope getScope(String scopeName) {
         Preconditions.checkNotNull(scopeName);
         Preconditions.checkState(!Strings.isNullOrEmpty(scopeName));
         return scopeCache.getIfPresent(scopeName);
-
     }
 
-    public static void putScope(Scope scope) {
+    public void putScope(Scope scope) {
         Preconditions.checkNotNull(scope);
-        if (scopeCache.getIfPresent(scope.getId()) == null) {
-            scopeCache.put(scope.getId(), scope);
-        }
+        scopeCache.asMap().putIfAbsent(scope.getId(), scope);
     }
 
-    public static Map<String, Scope> getAllScopes() {
-        return Maps.newHashMap(scopeCache.asMap());
+    /**
+     * Read-only view of the cached scopes keyed by id; it is not copied and
+     * reflects later changes.
+     */
+    public Map<String, Scope> getAllScopes() {
+        return scopes;
     }
 
     // Resource
-    public static void removeAllResources() {
-        resourceCache.invalidateAll();
+    public void removeAllResources() {
+        resourceScopeIds.clear();
     }
 
-    public static List<Scope> getResourceScopes(String resourceName) {
+    /**
+     * Returns the scopes required by the resource, or null for an unknown
+     * resource. A scope missing from the cache is loaded; if it cannot be, an
+     * IllegalStateException is thrown rather than a partial list returned.
+     */
+    public List<Scope> getResourceScopes(String resourceName) {
         Preconditions.checkNotNull(resourceName);
         Preconditions.checkState(!Strings.isNullOrEmpty(resourceName));
-        return resourceCache.getIfPresent(resourceName);
-
+        List<String> scopeIds = resourceScopeIds.get(resourceName);
+        if (scopeIds == null) {
+            return null;
+        }
+        List<Scope> scopeList = new ArrayList<>(scopeIds.size());
+        for (String scopeId : scopeIds) {
+            try {
+                scopeList.add(scopeCache.getUnchecked(scopeId));
+            } catch (UncheckedExecutionException ex) {
+                throw new IllegalStateException("Failed to load scope " + scopeId + " of resource " + resourceName,
+                        ex.getCause());
+            }
+        }
+        return scopeList;
     }
 
-    public static void putResource(String resourceName, List<Scope> scopeList) {
+    public void putResource(String resourceName, List<Scope> scopeList) {
         Preconditions.checkNotNull(resourceName);
-        resourceCache.put(resourceName, scopeList);
+        List<String> scopeIds = new ArrayList<>(scopeList.size());
+        for (Scope scope : scopeList) {
+            scopeIds.add(scope.getId());
+            putScope(scope);
+        }
+        resourceScopeIds.put(resourceName, Collections.unmodifiableList(scopeIds));
+    }
 
+    /**
+     * Read-only view of the scope ids required by each resource.
+     */
+    public Map<String, List<String>> getAllResources() {
+        return resources;
     }
 
-    public static Map<String, List<Scope>> getAllResources() {
-        return Maps.newHashMap(resourceCache.asMap());
+    public CacheStats getStats() {
+        return scopeCache.stats();
     }
 
+    private void refreshScopes() {
+        try {
+            log.debug("Refreshing " + scopeCache.size() + " API protection scopes");
+            for (String scopeId : scopeCache.asMap().keySet()) {
+                scopeCache.refresh(scopeId);
+            }
+        } catch (RuntimeException ex) {
+            // An exception would cancel the next runs
+            log.error("Failed to refresh API protection scopes", ex);
+        }
+    }
 }
@@ -16,8 +16,6 @@ import java.util.Collection;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import javax.enterprise.context.ApplicationScoped;
@@ -39,6 +37,9 @@ public class ApiProtectionService {
     @Inject
     ApiProtectionCache apiProtectionCache;
 
+    @Inject
+    ResourceScopeIndex resourceScopeIndex;
+
     @Inject
     ScopeService scopeService;
 
@@ -80,6 +81,7 @@ public class ApiProtectionService {
                 + "\n ***********");
         List<String> rsScopes = null;
         List<Scope> scopeList = null;
+        ResourceScopeIndex.Builder indexBuilder = ResourceScopeIndex.newBuilder();
         for (RsResource rsResource : rsResourceList) {
             for (Condition condition : rsResource.getConditions()) {
                 String resourceName = condition.getHttpMethods() + ":::" + rsResource.getPath();
@@ -148,10 +150,14 @@ public class ApiProtectionService {
 
                 // Add to resource cache
                 apiProtectionCache.putResource(resourceName, scopeList);
+                indexBuilder.add(rsResource.getPath(), condition.getHttpMethods(), scopeList);
                 log.trace("ApiProtectionService:::createScopeIfNeeded() - resourceName = " + resourceName
                         + " ,scopeList = " + scopeList);
             } // condition
         }
+
+        // Swap in the routing index used to resolve the scopes of a request
+        resourceScopeIndex.rebuild(indexBuilder);
     }
 
     private void updateScopeForClientIfNeeded(String clientId) throws Exception {
@@ -201,11 +207,7 @@ public class ApiProtectionService {
         List<String> scopes = new ArrayList<String>();
 
         // Verify in cache
-        Map<String, Scope> scopeMap = ApiProtectionCache.getAllScopes();
-        Set<String> keys = scopeMap.keySet();
-
-        for (String id : keys) {
-            Scope scope = ApiProtectionCache.getScope(id);
+        for (Scope scope : apiProtectionCache.getAllScopes().values()) {
             scopes.add(scope.getInum());
         }
         return scopes;
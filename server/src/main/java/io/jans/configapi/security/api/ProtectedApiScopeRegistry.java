@@ -0,0 +1,80 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.security.api;
+
+import io.jans.configapi.filters.ProtectedApi;
+import io.jans.configapi.rest.ApiApplication;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.container.ResourceInfo;
+
+import org.slf4j.Logger;
+
+/**
+ * Scopes declared through {@link ProtectedApi} on resource classes and
+ * methods, resolved once per resource method.
+ * <p>
+ * Every resource registered in {@link ApiApplication} is scanned at startup;
+ * a method missed by the scan (e.g. a sub-resource) is resolved on its first
+ * request and kept for the following ones.
+ */
+@ApplicationScoped
+public class ProtectedApiScopeRegistry {
+
+    @Inject
+    Logger log;
+
+    private final Map<Method, List<String>> scopesByMethod = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (Class<?> resourceClass : new ApiApplication().getClasses()) {
+            for (Method method : resourceClass.getMethods()) {
+                if (method.getDeclaringClass() != Object.class) {
+                    scopesByMethod.put(method, resolveScopes(resourceClass, method));
+                }
+            }
+        }
+        log.debug("Resolved @ProtectedApi scopes of {} resource methods", scopesByMethod.size());
+    }
+
+    public List<String> getScopes(ResourceInfo resourceInfo) {
+        Method resourceMethod = resourceInfo.getResourceMethod();
+        if (resourceMethod == null) {
+            return resolveScopes(resourceInfo.getResourceClass(), null);
+        }
+        return scopesByMethod.computeIfAbsent(resourceMethod,
+                method -> resolveScopes(resourceInfo.getResourceClass(), method));
+    }
+
+    private static List<String> resolveScopes(Class<?> resourceClass, Method resourceMethod) {
+        List<String> scopes = new ArrayList<>();
+        if (resourceClass != null) {
+            addScopes(resourceClass.getAnnotation(ProtectedApi.class), scopes);
+        }
+        if (resourceMethod != null) {
+            addScopes(resourceMethod.getAnnotation(ProtectedApi.class), scopes);
+        }
+        return (scopes.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(scopes));
+    }
+
+    private static void addScopes(ProtectedApi protectedApi, List<String> scopes) {
+        if (protectedApi != null) {
+            for (String scope : protectedApi.scopes()) {
+                scopes.add(scope.intern());
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.security.api;
+
+import io.jans.as.persistence.model.Scope;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Routing index of the protected resources declared in
+ * config-api-rs-protect.json, mapping a request method and path to the scopes
+ * it requires.
+ * <p>
+ * Paths are stored in a segment trie where <code>{param}</code> segments match
+ * any single segment, literal segments taking precedence over parameters. The
+ * index is immutable once built; {@link #rebuild(Builder)} swaps in a new one
+ * atomically so lookups never see a partially built index.
+ */
+@ApplicationScoped
+public class ResourceScopeIndex {
+
+    private volatile Node root = new Builder().build();
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Swaps in a copy of the builder's resources; later changes to the builder
+     * do not reach the index.
+     */
+    public void rebuild(Builder builder) {
+        this.root = builder.build();
+    }
+
+    /**
+     * Returns true when a protected resource matches the path, whatever its
+     * method.
+     */
+    public boolean isProtectedPath(String path) {
+        return find(path) != null;
+    }
+
+    /**
+     * Returns the scopes required by the method on the path, or null if no
+     * resource condition matches.
+     */
+    public List<Scope> getScopes(String method, String path) {
+        Node node = find(path);
+        if (node == null || method == null) {
+            return null;
+        }
+        for (int i = 0; i < node.methods.length; i++) {
+            if (node.methods[i].equalsIgnoreCase(method)) {
+                return node.scopes.get(i);
+            }
+        }
+        return null;
+    }
+
+    private Node find(String path) {
+        if (path == null) {
+            return null;
+        }
+        Node node = match(root, path, skipSlashes(path, 0));
+        return (node != null && node.isResource() ? node : null);
+    }
+
+    // Segments are compared in place, so a lookup allocates nothing
+    private static Node match(Node node, String path, int start) {
+        if (start >= path.length()) {
+            return node;
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        int length = end - start;
+        int next = skipSlashes(path, end);
+
+        for (int i = 0; i < node.literals.length; i++) {
+            String literal = node.literals[i];
+            if (literal.length() == length && path.regionMatches(start, literal, 0, length)) {
+                Node result = match(node.literalChildren[i], path, next);
+                if (result != null && result.isResource()) {
+                    return result;
+                }
+                break;
+            }
+        }
+        return (node.param != null ? match(node.param, path, next) : null);
+    }
+
+    private static int skipSlashes(String path, int index) {
+        while (index < path.length() && path.charAt(index) == '/') {
+            index++;
+        }
+        return index;
+    }
+
+    public static class Builder {
+
+        private final BuilderNode root = new BuilderNode();
+
+        private Builder() {
+        }
+
+        public Builder add(String path, List<String> httpMethods, List<Scope> scopes) {
+            BuilderNode node = root;
+            for (String segment : path.split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    if (node.param == null) {
+                        node.param = new BuilderNode();
+                    }
+                    node = node.param;
+                } else {
+                    node = node.children.computeIfAbsent(segment, k -> new BuilderNode());
+                }
+            }
+
+            List<Scope> scopeList = Collections.unmodifiableList(new ArrayList<>(scopes));
+            for (String httpMethod : httpMethods) {
+                node.scopesByMethod.put(httpMethod.toUpperCase(Locale.ROOT), scopeList);
+            }
+            return this;
+        }
+
+        private Node build() {
+            return root.build();
+        }
+    }
+
+    private static class BuilderNode {
+
+        private final Map<String, BuilderNode> children = new LinkedHashMap<>();
+        private final Map<String, List<Scope>> scopesByMethod = new LinkedHashMap<>();
+        private BuilderNode param;
+
+        private Node build() {
+            String[] literals = new String[children.size()];
+            Node[] literalChildren = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<String, BuilderNode> child : children.entrySet()) {
+                literals[i] = child.getKey();
+                literalChildren[i] = child.getValue().build();
+                i++;
+            }
+            return new Node(literals, literalChildren, (param != null ? param.build() : null),
+                    scopesByMethod.keySet().toArray(new String[0]), new ArrayList<>(scopesByMethod.values()));
+        }
+    }
+
+    private static class Node {
+
+        private final String[] literals;
+        private final Node[] literalChildren;
+        private final Node param;
+        private final String[] methods;
+        private final List<List<Scope>> scopes;
+
+        private Node(String[] literals, Node[] literalChildren, Node param, String[] methods,
+                List<List<Scope>> scopes) {
+            this.literals = literals;
+            this.literalChildren = literalChildren;
+            this.param = param;
+            this.methods = methods;
+            this.scopes = scopes;
+        }
+
+        private boolean isResource() {
+            return methods.length > 0;
+        }
+    }
+}
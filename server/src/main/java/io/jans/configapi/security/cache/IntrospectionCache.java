@@ -0,0 +1,120 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.security.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.jans.as.model.common.IntrospectionResponse;
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.model.configuration.AppConfiguration;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+
+/**
+ * Cache of introspection results of reference tokens keyed by issuer and
+ * token hash.
+ * <p>
+ * Active tokens are cached until their exp, capped by
+ * introspectionCacheMaxTtlInSeconds. Inactive tokens are cached for
+ * introspectionCacheNegativeTtlInSeconds so that a client replaying a revoked
+ * token does not hit the Authorization Server on every request. Concurrent
+ * lookups of the same token share a single introspection call.
+ */
+@ApplicationScoped
+public class IntrospectionCache {
+
+    @Inject
+    Logger log;
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    private Cache<String, CachedIntrospection> cache;
+
+    @PostConstruct
+    public void init() {
+        AppConfiguration appConfiguration = configurationFactory.getApiAppConfiguration();
+        long maxTtl = Math.max(appConfiguration.getIntrospectionCacheMaxTtlInSeconds(),
+                appConfiguration.getIntrospectionCacheNegativeTtlInSeconds());
+        this.cache = CacheBuilder.newBuilder().maximumSize(appConfiguration.getIntrospectionCacheMaxSize())
+                .expireAfterWrite(maxTtl, TimeUnit.SECONDS).build();
+    }
+
+    /**
+     * Returns the cached introspection result of the token, calling the loader
+     * on a miss. A null or inactive response is cached as a negative entry,
+     * while loader failures are not cached at all.
+     */
+    public IntrospectionResponse get(String issuer, String accessToken, Callable<IntrospectionResponse> loader)
+            throws Exception {
+        final String key = StringUtils.defaultString(issuer) + ":" + CacheKeys.tokenHash(accessToken);
+        CachedIntrospection entry = cache.getIfPresent(key);
+        if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+            cache.invalidate(key);
+        }
+
+        try {
+            entry = cache.get(key, () -> load(loader));
+        } catch (ExecutionException | UncheckedExecutionException ex) {
+            if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            }
+            throw ex;
+        }
+        return entry.getIntrospectionResponse();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private CachedIntrospection load(Callable<IntrospectionResponse> loader) throws Exception {
+        IntrospectionResponse introspectionResponse = loader.call();
+        final long now = System.currentTimeMillis();
+        AppConfiguration appConfiguration = configurationFactory.getApiAppConfiguration();
+
+        if (introspectionResponse == null || !introspectionResponse.isActive()) {
+            log.trace("Caching inactive introspection result");
+            return new CachedIntrospection(introspectionResponse,
+                    now + TimeUnit.SECONDS.toMillis(appConfiguration.getIntrospectionCacheNegativeTtlInSeconds()));
+        }
+
+        long expiresAt = now + TimeUnit.SECONDS.toMillis(appConfiguration.getIntrospectionCacheMaxTtlInSeconds());
+        if (introspectionResponse.getExpiresAt() != null) {
+            expiresAt = Math.min(expiresAt, TimeUnit.SECONDS.toMillis(introspectionResponse.getExpiresAt()));
+        }
+        return new CachedIntrospection(introspectionResponse, expiresAt);
+    }
+
+    private static class CachedIntrospection {
+
+        private final IntrospectionResponse introspectionResponse;
+        private final long expiresAt;
+
+        CachedIntrospection(IntrospectionResponse introspectionResponse, long expiresAt) {
+            this.introspectionResponse = introspectionResponse;
+            this.expiresAt = expiresAt;
+        }
+
+        IntrospectionResponse getIntrospectionResponse() {
+            return introspectionResponse;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.security.cache;
+
+import io.jans.as.client.JwkResponse;
+import io.jans.as.model.jwk.JSONWebKeySet;
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.security.client.AuthClientFactory;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.client.utils.DateUtils;
+import org.slf4j.Logger;
+
+/**
+ * Per issuer cache of JSON Web Key Sets, keyed by the issuer's jwks_uri.
+ * <p>
+ * Entries live for the max-age advertised by the Authorization Server
+ * (Cache-Control / Expires), but at least jwksCacheMinTtlInSeconds, and are
+ * refreshed in the background once most of that lifetime has elapsed. A token
+ * signed with an unknown kid triggers a single, rate limited refetch shared by
+ * all concurrent callers.
+ * <p>
+ * The last good key set is kept: while a refresh fails, the stale keys keep
+ * being served. Failed fetches are retried after a backoff starting at
+ * jwksCacheMinRefreshIntervalInSeconds and doubling up to
+ * jwksCacheMaxFailureBackoffInSeconds, so an unreachable jwks_uri is not hit
+ * on every request.
+ */
+@ApplicationScoped
+public class JwksCache {
+
+    private static final String MAX_AGE = "max-age=";
+    private static final double REFRESH_AHEAD_FACTOR = 0.8;
+
+    @Inject
+    Logger log;
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    @Inject
+    AuthClientFactory authClientFactory;
+
+    private final ConcurrentMap<String, CachedJwks> cache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<CachedJwks>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, FetchFailure> failures = new ConcurrentHashMap<>();
+
+    private ExecutorService refreshExecutor;
+
+    @PostConstruct
+    public void init() {
+        this.refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        this.refreshExecutor.shutdownNow();
+    }
+
+    public JSONWebKeySet getJSONWebKeys(String jwksUri) throws Exception {
+        final long now = System.currentTimeMillis();
+        CachedJwks entry = cache.get(jwksUri);
+        if (entry == null) {
+            if (isBackingOff(jwksUri, now)) {
+                log.debug("JWKS fetch of jwksUri = {} skipped, backing off after failure", jwksUri);
+                return null;
+            }
+            log.debug("JWKS cache miss for jwksUri = {}", jwksUri);
+            entry = load(jwksUri);
+        } else if (entry.isRefreshDue(now)) {
+            if (entry.isExpired(now)) {
+                log.debug("Serving expired JWKS of jwksUri = {} until a refresh succeeds", jwksUri);
+            }
+            refreshInBackground(jwksUri, now);
+        }
+        return (entry != null ? entry.getJwks() : null);
+    }
+
+    /**
+     * Returns the key set of the given jwks_uri, making sure it contains the
+     * requested kid if the Authorization Server has rotated its keys since the
+     * last fetch.
+     */
+    public JSONWebKeySet getJSONWebKeys(String jwksUri, String kid) throws Exception {
+        JSONWebKeySet jwks = getJSONWebKeys(jwksUri);
+        if (StringUtils.isBlank(kid) || (jwks != null && jwks.getKey(kid) != null)) {
+            return jwks;
+        }
+
+        final long now = System.currentTimeMillis();
+        CachedJwks entry = cache.get(jwksUri);
+        if (isBackingOff(jwksUri, now)
+                || (entry != null && !entry.isForcedRefreshAllowed(now, getMinRefreshIntervalMillis()))) {
+            log.debug("kid = {} not found in JWKS of jwksUri = {}, refetch skipped (rate limited)", kid, jwksUri);
+            return jwks;
+        }
+
+        log.debug("kid = {} not found in JWKS of jwksUri = {}, refetching", kid, jwksUri);
+        try {
+            entry = load(jwksUri);
+        } catch (Exception ex) {
+            log.error("Failed to refetch JWKS of jwksUri = " + jwksUri + ", keeping cached keys", ex);
+            return jwks;
+        }
+        return (entry != null ? entry.getJwks() : jwks);
+    }
+
+    public void invalidate(String jwksUri) {
+        cache.remove(jwksUri);
+        failures.remove(jwksUri);
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+        failures.clear();
+    }
+
+    private void refreshInBackground(String jwksUri, long now) {
+        if (inFlight.containsKey(jwksUri) || isBackingOff(jwksUri, now)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                load(jwksUri);
+            } catch (Exception ex) {
+                log.error("Failed to refresh JWKS of jwksUri = " + jwksUri + ", keeping cached keys", ex);
+            }
+        });
+    }
+
+    /**
+     * Fetches the key set, collapsing concurrent fetches of the same jwks_uri
+     * into one remote call. A failed fetch leaves the cached entry in place
+     * and starts or extends the backoff.
+     */
+    private CachedJwks load(String jwksUri) throws Exception {
+        CompletableFuture<CachedJwks> future = new CompletableFuture<>();
+        CompletableFuture<CachedJwks> existing = inFlight.putIfAbsent(jwksUri, future);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            CachedJwks entry = fetch(jwksUri);
+            if (entry != null) {
+                cache.put(jwksUri, entry);
+                failures.remove(jwksUri);
+            } else {
+                recordFailure(jwksUri);
+            }
+            future.complete(entry);
+            return entry;
+        } catch (Exception ex) {
+            recordFailure(jwksUri);
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(jwksUri, future);
+        }
+    }
+
+    private CachedJwks await(CompletableFuture<CachedJwks> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private CachedJwks fetch(String jwksUri) throws Exception {
+        JwkResponse jwkResponse = authClientFactory.getJwkResponse(jwksUri);
+        if (jwkResponse == null || jwkResponse.getJwks() == null) {
+            log.error("Failed to fetch JWKS from jwksUri = {}", jwksUri);
+            return null;
+        }
+
+        final long now = System.currentTimeMillis();
+        long ttlMillis = getTtlMillis(jwkResponse.getHeaders(), now);
+        log.debug("JWKS of jwksUri = {} cached for {} ms", jwksUri, ttlMillis);
+        return new CachedJwks(jwkResponse.getJwks(), now, ttlMillis);
+    }
+
+    private boolean isBackingOff(String jwksUri, long now) {
+        FetchFailure failure = failures.get(jwksUri);
+        return failure != null && now < failure.retryAt;
+    }
+
+    private void recordFailure(String jwksUri) {
+        final long now = System.currentTimeMillis();
+        FetchFailure failure = failures.compute(jwksUri,
+                (key, previous) -> new FetchFailure(previous == null ? 1 : previous.count + 1, now));
+        log.debug("JWKS fetch of jwksUri = {} failed {} time(s) in a row, next attempt in {} ms", jwksUri,
+                failure.count, failure.retryAt - now);
+    }
+
+    /**
+     * Lifetime of a fetched key set: the advertised one, with no-cache,
+     * no-store and past dates raised to jwksCacheMinTtlInSeconds.
+     */
+    long getTtlMillis(MultivaluedMap<String, Object> headers, long now) {
+        long minTtlMillis = TimeUnit.SECONDS
+                .toMillis(configurationFactory.getApiAppConfiguration().getJwksCacheMinTtlInSeconds());
+        return Math.max(getAdvertisedTtlMillis(headers, now), minTtlMillis);
+    }
+
+    private long getAdvertisedTtlMillis(MultivaluedMap<String, Object> headers, long now) {
+        if (headers != null) {
+            String cacheControl = getHeader(headers, HttpHeaders.CACHE_CONTROL);
+            if (cacheControl != null) {
+                for (String directive : cacheControl.split(",")) {
+                    directive = directive.trim().toLowerCase();
+                    if (directive.equals("no-store") || directive.equals("no-cache")) {
+                        return 0;
+                    }
+                    if (directive.startsWith(MAX_AGE)) {
+                        try {
+                            return TimeUnit.SECONDS.toMillis(Long.parseLong(directive.substring(MAX_AGE.length())));
+                        } catch (NumberFormatException ex) {
+                            log.debug("Invalid Cache-Control max-age directive - {}", directive);
+                        }
+                    }
+                }
+            }
+
+            String expires = getHeader(headers, HttpHeaders.EXPIRES);
+            if (expires != null) {
+                Date expiresAt = DateUtils.parseDate(expires);
+                if (expiresAt != null) {
+                    return Math.max(0, expiresAt.getTime() - now);
+                }
+            }
+        }
+        return TimeUnit.SECONDS.toMillis(configurationFactory.getApiAppConfiguration().getJwksCacheDefaultTtlInSeconds());
+    }
+
+    private String getHeader(MultivaluedMap<String, Object> headers, String name) {
+        for (String key : headers.keySet()) {
+            if (key.equalsIgnoreCase(name)) {
+                List<Object> values = headers.get(key);
+                return (values != null && !values.isEmpty() && values.get(0) != null) ? values.get(0).toString()
+                        : null;
+            }
+        }
+        return null;
+    }
+
+    private long getMinRefreshIntervalMillis() {
+        return TimeUnit.SECONDS
+                .toMillis(configurationFactory.getApiAppConfiguration().getJwksCacheMinRefreshIntervalInSeconds());
+    }
+
+    private class FetchFailure {
+
+        private final int count;
+        private final long retryAt;
+
+        FetchFailure(int count, long failedAt) {
+            this.count = count;
+            long maxBackoffMillis = TimeUnit.SECONDS.toMillis(
+                    configurationFactory.getApiAppConfiguration().getJwksCacheMaxFailureBackoffInSeconds());
+            long backoffMillis = getMinRefreshIntervalMillis() << Math.min(count - 1, 16);
+            this.retryAt = failedAt + Math.min(backoffMillis, maxBackoffMillis);
+        }
+    }
+
+    private static class CachedJwks {
+
+        private final JSONWebKeySet jwks;
+        private final long fetchedAt;
+        private final long refreshAt;
+        private final long expiresAt;
+
+        CachedJwks(JSONWebKeySet jwks, long fetchedAt, long ttlMillis) {
+            this.jwks = jwks;
+            this.fetchedAt = fetchedAt;
+            this.refreshAt = fetchedAt + (long) (ttlMillis * REFRESH_AHEAD_FACTOR);
+            this.expiresAt = fetchedAt + ttlMillis;
+        }
+
+        JSONWebKeySet getJwks() {
+            return jwks;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        boolean isRefreshDue(long now) {
+            return now >= refreshAt;
+        }
+
+        boolean isForcedRefreshAllowed(long now, long minRefreshIntervalMillis) {
+            return now - fetchedAt >= minRefreshIntervalMillis;
+        }
+    }
+}
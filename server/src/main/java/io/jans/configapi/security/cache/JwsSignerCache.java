@@ -0,0 +1,43 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.security.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.jans.as.model.jwk.JSONWebKeySet;
+import io.jans.as.model.jws.AbstractJwsSigner;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Signature verifiers built from JSON Web Keys, kept per key set instance.
+ * <p>
+ * {@link JwksCache} hands out the same {@link JSONWebKeySet} instance until
+ * the keys are fetched again, so the instance acts as the key set generation:
+ * verifiers are built once per kid and algorithm and dropped together with
+ * their key set (weak, identity based keys) after a rotation.
+ */
+@ApplicationScoped
+public class JwsSignerCache {
+
+    private final Cache<JSONWebKeySet, ConcurrentMap<String, AbstractJwsSigner>> cache = CacheBuilder.newBuilder()
+            .weakKeys().build();
+
+    public AbstractJwsSigner getSigner(JSONWebKeySet jsonWebKeySet, String kid, String algorithm,
+            Supplier<AbstractJwsSigner> signerFactory) throws ExecutionException {
+        ConcurrentMap<String, AbstractJwsSigner> signers = cache.get(jsonWebKeySet, ConcurrentHashMap::new);
+        return signers.computeIfAbsent(kid + ":" + algorithm, key -> signerFactory.get());
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
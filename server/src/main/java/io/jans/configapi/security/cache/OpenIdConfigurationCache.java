@@ -0,0 +1,126 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.security.cache;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.model.configuration.AppConfiguration;
+import io.jans.configapi.security.client.AuthClientFactory;
+import io.jans.configapi.security.client.OpenIdConfiguration;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.slf4j.Logger;
+
+/**
+ * Cache of OpenID Provider metadata keyed by issuer.
+ * <p>
+ * Once an entry is older than openIdConfigurationCacheTtlInSeconds the stale
+ * document keeps being served while a single background reload runs. Entries
+ * older than openIdConfigurationCacheMaxStaleInSeconds are dropped and fetched
+ * synchronously.
+ */
+@ApplicationScoped
+public class OpenIdConfigurationCache {
+
+    private static final String METRIC_PREFIX = "openid_configuration_cache_";
+
+    @Inject
+    Logger log;
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    @Inject
+    AuthClientFactory authClientFactory;
+
+    @Inject
+    @RegistryType(type = MetricRegistry.Type.APPLICATION)
+    MetricRegistry metricRegistry;
+
+    private ExecutorService refreshExecutor;
+    private LoadingCache<String, OpenIdConfiguration> cache;
+
+    @PostConstruct
+    public void init() {
+        this.refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "openid-configuration-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        AppConfiguration appConfiguration = configurationFactory.getApiAppConfiguration();
+        this.cache = CacheBuilder.newBuilder()
+                .refreshAfterWrite(appConfiguration.getOpenIdConfigurationCacheTtlInSeconds(), TimeUnit.SECONDS)
+                .expireAfterWrite(appConfiguration.getOpenIdConfigurationCacheMaxStaleInSeconds(), TimeUnit.SECONDS)
+                .recordStats().build(CacheLoader.asyncReloading(new CacheLoader<String, OpenIdConfiguration>() {
+                    @Override
+                    public OpenIdConfiguration load(String issuer) throws Exception {
+                        log.debug("Loading OpenID configuration of issuer = {}", issuer);
+                        OpenIdConfiguration openIdConfiguration = authClientFactory.getOpenIdConfiguration(issuer);
+                        if (openIdConfiguration == null) {
+                            throw new IllegalStateException("Failed to fetch OpenID configuration of " + issuer);
+                        }
+                        return openIdConfiguration;
+                    }
+                }, refreshExecutor));
+
+        metricRegistry.register(METRIC_PREFIX + "hits", (Gauge<Long>) () -> getStats().hitCount());
+        metricRegistry.register(METRIC_PREFIX + "misses", (Gauge<Long>) () -> getStats().missCount());
+        metricRegistry.register(METRIC_PREFIX + "load_failures", (Gauge<Long>) () -> getStats().loadExceptionCount());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        this.refreshExecutor.shutdownNow();
+    }
+
+    public OpenIdConfiguration get(String issuer) {
+        try {
+            return cache.get(issuer);
+        } catch (ExecutionException | UncheckedExecutionException ex) {
+            log.error("Failed to get OpenID configuration of issuer = " + issuer, ex.getCause());
+            return null;
+        }
+    }
+
+    public String getJwksUri(String issuer) {
+        OpenIdConfiguration openIdConfiguration = get(issuer);
+        return (openIdConfiguration != null ? openIdConfiguration.getJwksUri() : null);
+    }
+
+    public String getIntrospectionEndpoint(String issuer) {
+        OpenIdConfiguration openIdConfiguration = get(issuer);
+        return (openIdConfiguration != null ? openIdConfiguration.getIntrospectionEndpoint() : null);
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public void invalidate(String issuer) {
+        cache.invalidate(issuer);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
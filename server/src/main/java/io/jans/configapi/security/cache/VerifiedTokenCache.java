@@ -0,0 +1,67 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.security.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.model.configuration.AppConfiguration;
+import io.jans.configapi.security.service.VerifiedToken;
+
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+
+/**
+ * Bounded cache of successfully verified access tokens keyed by token hash.
+ * An entry never outlives the token's exp claim nor
+ * verifiedTokenCacheMaxTtlInSeconds.
+ */
+@ApplicationScoped
+public class VerifiedTokenCache {
+
+    @Inject
+    Logger log;
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    private Cache<String, VerifiedToken> cache;
+
+    @PostConstruct
+    public void init() {
+        AppConfiguration appConfiguration = configurationFactory.getApiAppConfiguration();
+        this.cache = CacheBuilder.newBuilder().maximumSize(appConfiguration.getVerifiedTokenCacheMaxSize())
+                .expireAfterWrite(appConfiguration.getVerifiedTokenCacheMaxTtlInSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    public VerifiedToken get(String accessToken) {
+        final String key = CacheKeys.tokenHash(accessToken);
+        VerifiedToken verifiedToken = cache.getIfPresent(key);
+        if (verifiedToken != null && verifiedToken.isExpired(System.currentTimeMillis())) {
+            cache.invalidate(key);
+            return null;
+        }
+        return verifiedToken;
+    }
+
+    public void put(String accessToken, VerifiedToken verifiedToken) {
+        if (verifiedToken == null || verifiedToken.isExpired(System.currentTimeMillis())) {
+            return;
+        }
+        log.trace("Caching verified token - {}", verifiedToken);
+        cache.put(CacheKeys.tokenHash(accessToken), verifiedToken);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -18,86 +18,58 @@ import io.jans.configapi.util.Jackson;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONObject;
 
+import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation.Builder;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.Response;
-import javax.ws.rs.core.UriBuilder;
 
-import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
-import org.eclipse.microprofile.rest.client.inject.RestClient;
-import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
 import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
-import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient43Engine;
 import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-@RegisterProvider(OpenIdClientService.class)
+/**
+ * Calls made by the API protection layer to the Authorization Server. All of
+ * them go through the pooled clients of {@link ClientFactory}.
+ */
+@ApplicationScoped
 public class AuthClientFactory {
 
     @Inject
-    @RestClient
-    OpenIdClientService openIdClientService;
+    Logger log;
 
-    private static Logger log = LoggerFactory.getLogger(AuthClientFactory.class);
+    @Inject
+    ClientFactory clientFactory;
 
-    public static IntrospectionService getIntrospectionService(String url, boolean followRedirects) {
-        return createIntrospectionService(url, followRedirects);
+    public IntrospectionService getIntrospectionService(String url, boolean followRedirects) {
+        ResteasyWebTarget target = clientFactory.getClient(followRedirects).target(url);
+        return target.proxy(IntrospectionService.class);
     }
 
-    public static IntrospectionResponse getIntrospectionResponse(String url, String header, String token,
+    public IntrospectionResponse getIntrospectionResponse(String url, String header, String token,
             boolean followRedirects) {
-        ApacheHttpClient43Engine engine = null;
-        try {
-            log.info("\n\n AuthClientFactory:::getIntrospectionResponse() - url = " + url + " , header = " + header
-                    + " , token = " + token + " , followRedirects = " + followRedirects);
-
-            engine = ClientFactory.createEngine(false);
-            RestClientBuilder restClient = RestClientBuilder.newBuilder().baseUri(UriBuilder.fromPath(url).build());
-
-            ResteasyWebTarget target = (ResteasyWebTarget) ResteasyClientBuilder
-                    .newClient(restClient.getConfiguration()).property("Content-Type", MediaType.APPLICATION_JSON)
-                    .target(url);
-
-            IntrospectionService proxy = target.proxy(IntrospectionService.class);
-
-            return proxy.introspectToken(header, token);
-        } finally {
-            if (engine != null) {
-                engine.close();
-            }
-        }
+        log.trace("\n\n AuthClientFactory:::getIntrospectionResponse() - url = " + url + " , followRedirects = "
+                + followRedirects);
+        return getIntrospectionService(url, followRedirects).introspectToken(header, token);
     }
 
-    public static TokenResponse requestAccessToken(final String tokenUrl, final String clientId,
+    public TokenResponse requestAccessToken(final String tokenUrl, final String clientId,
             final String clientSecret, final String scope) {
-        ApacheHttpClient43Engine engine = null;
-        try {
-            Builder request = ResteasyClientBuilder.newClient().target(tokenUrl).request();
-            TokenRequest tokenRequest = new TokenRequest(GrantType.CLIENT_CREDENTIALS);
-            tokenRequest.setScope(scope);
-            tokenRequest.setAuthUsername(clientId);
-            tokenRequest.setAuthPassword(clientSecret);
+        TokenRequest tokenRequest = new TokenRequest(GrantType.CLIENT_CREDENTIALS);
+        tokenRequest.setScope(scope);
+        tokenRequest.setAuthUsername(clientId);
+        tokenRequest.setAuthPassword(clientSecret);
 
-            final MultivaluedHashMap<String, String> multivaluedHashMap = new MultivaluedHashMap(
-                    tokenRequest.getParameters());
-            request.header("Authorization", "Basic " + tokenRequest.getEncodedCredentials());
+        final MultivaluedHashMap<String, String> multivaluedHashMap = new MultivaluedHashMap(
+                tokenRequest.getParameters());
 
-            request.header("Content-Type", MediaType.APPLICATION_FORM_URLENCODED);
-
-            engine = ClientFactory.createEngine(false);
-            RestClientBuilder restClient = RestClientBuilder.newBuilder().baseUri(UriBuilder.fromPath(tokenUrl).build())
-                    .register(engine);
-            restClient.property("Authorization", "Basic " + tokenRequest.getEncodedCredentials());
-            restClient.property("Content-Type", MediaType.APPLICATION_FORM_URLENCODED);
-
-            ResteasyWebTarget target = (ResteasyWebTarget) ResteasyClientBuilder
-                    .newClient(restClient.getConfiguration()).target(tokenUrl);
-            Response response = request.post(Entity.form(multivaluedHashMap));
+        Builder request = clientFactory.getClient().target(tokenUrl).request();
+        request.header("Authorization", "Basic " + tokenRequest.getEncodedCredentials());
+        request.header("Content-Type", MediaType.APPLICATION_FORM_URLENCODED);
 
+        Response response = request.post(Entity.form(multivaluedHashMap));
+        try {
             if (response.getStatus() == 200) {
                 String entity = response.readEntity(String.class);
 
@@ -108,91 +80,77 @@ public class AuthClientFactory {
                 return tokenResponse;
             }
         } finally {
-            if (engine != null) {
-                engine.close();
-            }
+            response.close();
         }
         return null;
     }
 
-    public static String getIntrospectionEndpoint(String issuer) throws Exception {
+    public String getIntrospectionEndpoint(String issuer) throws Exception {
         log.trace("\n\n AuthClientFactory::getIntrospectionEndpoint() - issuer = " + issuer);
+        OpenIdConfiguration openIdConfiguration = getOpenIdConfiguration(issuer);
+        return (openIdConfiguration != null ? openIdConfiguration.getIntrospectionEndpoint() : null);
+    }
+
+    public OpenIdConfiguration getOpenIdConfiguration(String issuer) throws Exception {
+        log.trace("\n\n AuthClientFactory::getOpenIdConfiguration() - issuer = " + issuer);
         String configurationEndpoint = issuer + "/.well-known/openid-configuration";
-        log.trace("\n\n AuthClientFactory::getIntrospectionEndpoint() - configurationEndpoint = "
+        log.trace("\n\n AuthClientFactory::getOpenIdConfiguration() - configurationEndpoint = "
                 + configurationEndpoint);
 
-        Builder request = ResteasyClientBuilder.newClient().target(configurationEndpoint).request();
+        Builder request = clientFactory.getClient().target(configurationEndpoint).request();
         request.header("Content-Type", MediaType.APPLICATION_JSON);
         Response response = request.get();
-        log.trace("\n\n AuthClientFactory::getIntrospectionEndpoint() - response = " + response);
-
-        if (response.getStatus() == 200) {
-            String entity = response.readEntity(String.class);
-            log.trace("\n\n AuthClientFactory::getIntrospectionEndpoint() - entity = " + entity);
-            return Jackson.getElement(entity, "introspection_endpoint");
-        }
-        return null;
-    }
-
-    private static IntrospectionService createIntrospectionService(String url, boolean followRedirects) {
-        ApacheHttpClient43Engine engine = null;
         try {
-            engine = ClientFactory.createEngine(followRedirects);
-            RestClientBuilder restClient = RestClientBuilder.newBuilder().baseUri(UriBuilder.fromPath(url).build())
-                    .register(engine);
-            ResteasyWebTarget target = (ResteasyWebTarget) ResteasyClientBuilder
-                    .newClient(restClient.getConfiguration()).target(url);
-            IntrospectionService proxy = target.proxy(IntrospectionService.class);
-            return proxy;
-        } finally {
-            if (engine != null) {
-                engine.close();
+            log.trace("\n\n AuthClientFactory::getOpenIdConfiguration() - response = " + response);
+
+            if (response.getStatus() == 200) {
+                String entity = response.readEntity(String.class);
+                log.trace("\n\n AuthClientFactory::getOpenIdConfiguration() - entity = " + entity);
+                return Jackson.createJsonMapper().readValue(entity, OpenIdConfiguration.class);
             }
+        } finally {
+            response.close();
         }
+        return null;
     }
 
-    public static String getJwksUri(String issuer) throws Exception {
+    public String getJwksUri(String issuer) throws Exception {
         log.trace("\n\n AuthClientFactory::getJwksUri() - issuer = " + issuer);
-        String configurationEndpoint = issuer + "/.well-known/openid-configuration";
-        log.trace("\n\n AuthClientFactory::getJwksUri() - configurationEndpoint = " + configurationEndpoint);
-
-        Builder request = ResteasyClientBuilder.newClient().target(configurationEndpoint).request();
-        request.header("Content-Type", MediaType.APPLICATION_JSON);
-        Response response = request.get();
-        log.trace("\n\n AuthClientFactory::getJwksUri() - response = " + response);
+        OpenIdConfiguration openIdConfiguration = getOpenIdConfiguration(issuer);
+        return (openIdConfiguration != null ? openIdConfiguration.getJwksUri() : null);
+    }
 
-        if (response.getStatus() == 200) {
-            String entity = response.readEntity(String.class);
-            log.trace("\n\n AuthClientFactory::getJwksUri() - entity = " + entity);
-            return Jackson.getElement(entity, "jwks_uri");
-        }
-        return null;
+    public JSONWebKeySet getJSONWebKeys(String jwksUri) throws Exception {
+        JwkResponse jwkResponse = getJwkResponse(jwksUri);
+        return (jwkResponse != null ? jwkResponse.getJwks() : null);
     }
 
-    public static JSONWebKeySet getJSONWebKeys(String jwksUri) throws Exception {
-        log.trace("\n\n AuthClientFactory::getJSONWebKeys() - jwksUri = " + jwksUri);
+    public JwkResponse getJwkResponse(String jwksUri) throws Exception {
+        log.trace("\n\n AuthClientFactory::getJwkResponse() - jwksUri = " + jwksUri);
 
-        Builder request = ResteasyClientBuilder.newClient().target(jwksUri).request();
+        Builder request = clientFactory.getClient().target(jwksUri).request();
         request.header("Content-Type", MediaType.APPLICATION_JSON);
         Response response = request.get();
-        log.trace("\n\n AuthClientFactory::getJSONWebKeys() - response = " + response);
-
-        if (response.getStatus() == 200) {
-            String entity = response.readEntity(String.class);
-            log.trace("\n\n AuthClientFactory::getJSONWebKeys() - entity = " + entity);
-            JwkResponse jwkResponse = new JwkResponse(200);
-            JSONWebKeySet jwks = null;
-            if (StringUtils.isNotBlank(entity)) {
-                JSONObject jsonObj = new JSONObject(entity);
-                if (jsonObj.has(JSON_WEB_KEY_SET)) {
-                    jwks = JSONWebKeySet.fromJSONObject(jsonObj);
-                    jwkResponse.setJwks(jwks);
+        try {
+            log.trace("\n\n AuthClientFactory::getJwkResponse() - response = " + response);
+
+            if (response.getStatus() == 200) {
+                String entity = response.readEntity(String.class);
+                log.trace("\n\n AuthClientFactory::getJwkResponse() - entity = " + entity);
+                JwkResponse jwkResponse = new JwkResponse(200);
+                jwkResponse.setHeaders(response.getHeaders());
+                if (StringUtils.isNotBlank(entity)) {
+                    JSONObject jsonObj = new JSONObject(entity);
+                    if (jsonObj.has(JSON_WEB_KEY_SET)) {
+                        jwkResponse.setJwks(JSONWebKeySet.fromJSONObject(jsonObj));
+                    }
+                    log.trace("\n\n AuthClientFactory::getJwkResponse() - jwkResponse = " + jwkResponse
+                            + " , jwks = " + jwkResponse.getJwks());
+                    return jwkResponse;
                 }
-                log.trace("\n\n AuthClientFactory::getJSONWebKeys() - jwkResponse = " + jwkResponse + " , jwks = "
-                        + jwks);
-                return jwks;
             }
-
+        } finally {
+            response.close();
         }
         return null;
     }
@@ -6,33 +6,121 @@ import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HTTP;
 import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContexts;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
 import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient43Engine;
+import org.slf4j.Logger;
 
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.model.configuration.AppConfiguration;
 import io.jans.configapi.util.ApiConstants;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Owns the outbound HTTP clients used to talk to the Authorization Server.
+ * Both clients share one connection pool and one SSL context, so connections
+ * and TLS sessions are reused across introspection, token and JWKS calls.
+ */
+@ApplicationScoped
 public class ClientFactory {
 
-    public static ApacheHttpClient43Engine createEngine(boolean followRedirects) {
-        return createEngine(ApiConstants.CONNECTION_POOL_MAX_TOTAL, ApiConstants.CONNECTION_POOL_DEFAULT_MAX_PER_ROUTE,
-                ApiConstants.CONNECTION_POOL_VALIDATE_AFTER_INACTIVITY, CookieSpecs.STANDARD, followRedirects);
+    private static final String METRIC_PREFIX = "http_client_pool_";
+
+    @Inject
+    Logger log;
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    @Inject
+    @RegistryType(type = MetricRegistry.Type.APPLICATION)
+    MetricRegistry metricRegistry;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+    private ResteasyClient client;
+    private ResteasyClient redirectingClient;
+
+    @PostConstruct
+    public void init() {
+        AppConfiguration appConfiguration = configurationFactory.getApiAppConfiguration();
+        this.connectionManager = createConnectionManager(appConfiguration.getConnectionPoolMaxTotal(),
+                appConfiguration.getConnectionPoolDefaultMaxPerRoute(),
+                appConfiguration.getConnectionPoolValidateAfterInactivity());
+        this.client = createClient(connectionManager, false);
+        this.redirectingClient = createClient(connectionManager, true);
+        log.info("Outbound HTTP connection pool created, maxTotal = {} , defaultMaxPerRoute = {}",
+                connectionManager.getMaxTotal(), connectionManager.getDefaultMaxPerRoute());
+
+        metricRegistry.register(METRIC_PREFIX + "leased", (Gauge<Integer>) () -> getPoolStats().getLeased());
+        metricRegistry.register(METRIC_PREFIX + "available", (Gauge<Integer>) () -> getPoolStats().getAvailable());
+        metricRegistry.register(METRIC_PREFIX + "pending", (Gauge<Integer>) () -> getPoolStats().getPending());
+        metricRegistry.register(METRIC_PREFIX + "max", (Gauge<Integer>) () -> getPoolStats().getMax());
     }
 
-    private static ApacheHttpClient43Engine createEngine(int maxTotal, int defaultMaxPerRoute,
-            int validateAfterInactivity, String cookieSpec, boolean followRedirects) {
-        PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager();
+    @PreDestroy
+    public void destroy() {
+        this.client.close();
+        this.redirectingClient.close();
+        this.connectionManager.close();
+    }
+
+    public ResteasyClient getClient() {
+        return client;
+    }
+
+    public ResteasyClient getClient(boolean followRedirects) {
+        return (followRedirects ? redirectingClient : client);
+    }
+
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    private static ResteasyClient createClient(PoolingHttpClientConnectionManager cm, boolean followRedirects) {
+        return ResteasyClientBuilder.newBuilder()
+                .httpEngine(createEngine(cm, true, CookieSpecs.STANDARD, followRedirects)).build();
+    }
+
+    private static PoolingHttpClientConnectionManager createConnectionManager(int maxTotal, int defaultMaxPerRoute,
+            int validateAfterInactivity) {
+        // One SSL context for the whole pool so its client session cache allows TLS session resumption
+        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(SSLContexts.createSystemDefault())).build();
+
+        PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
         cm.setMaxTotal(maxTotal);
         cm.setDefaultMaxPerRoute(defaultMaxPerRoute);
         cm.setValidateAfterInactivity(validateAfterInactivity * 1000);
+        return cm;
+    }
 
+    private static ApacheHttpClient43Engine createEngine(PoolingHttpClientConnectionManager cm, boolean shared,
+            String cookieSpec, boolean followRedirects) {
         HttpClient httpClient = HttpClients.custom()
                 .setDefaultRequestConfig(RequestConfig.custom().setCookieSpec(cookieSpec).build())
-                .setKeepAliveStrategy(connectionKeepAliveStrategy).setConnectionManager(cm).build();
+                .setKeepAliveStrategy(connectionKeepAliveStrategy).setConnectionManager(cm)
+                .setConnectionManagerShared(shared).disableConnectionState().build();
 
         final ApacheHttpClient43Engine engine = new ApacheHttpClient43Engine(httpClient);
         engine.setFollowRedirects(followRedirects);
@@ -0,0 +1,60 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.security.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Subset of the OpenID Provider metadata (.well-known/openid-configuration)
+ * used by the API protection layer.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OpenIdConfiguration {
+
+    @JsonProperty("issuer")
+    private String issuer;
+
+    @JsonProperty("jwks_uri")
+    private String jwksUri;
+
+    @JsonProperty("introspection_endpoint")
+    private String introspectionEndpoint;
+
+    @JsonProperty("token_endpoint")
+    private String tokenEndpoint;
+
+    @JsonProperty("revocation_endpoint")
+    private String revocationEndpoint;
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    public String getJwksUri() {
+        return jwksUri;
+    }
+
+    public String getIntrospectionEndpoint() {
+        return introspectionEndpoint;
+    }
+
+    public String getTokenEndpoint() {
+        return tokenEndpoint;
+    }
+
+    public String getRevocationEndpoint() {
+        return revocationEndpoint;
+    }
+
+    @Override
+    public String toString() {
+        return "OpenIdConfiguration [issuer=" + issuer + ", jwksUri=" + jwksUri + ", introspectionEndpoint="
+                + introspectionEndpoint + ", tokenEndpoint=" + tokenEndpoint + ", revocationEndpoint="
+                + revocationEndpoint + "]";
+    }
+}
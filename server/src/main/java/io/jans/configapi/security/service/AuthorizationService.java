@@ -29,8 +29,11 @@ public abstract class AuthorizationService implements Serializable {
     @Inject
     AuthUtil authUtil;
 
-    public abstract void processAuthorization(String token, String issuer, ResourceInfo resourceInfo, String method,
-            String path) throws Exception;
+    /**
+     * Authorizes the request and returns the verified token it was made with.
+     */
+    public abstract VerifiedToken processAuthorization(String token, String issuer, ResourceInfo resourceInfo,
+            String method, String path) throws Exception;
 
     protected Response getErrorResponse(Response.Status status, String detail) {
         return Response.status(status).entity(detail).build();
@@ -8,10 +8,14 @@ package io.jans.configapi.security.service;
 
 import io.jans.as.model.exception.InvalidJwtException;
 import io.jans.as.model.jwt.Jwt;
+import io.jans.configapi.security.cache.IntrospectionCache;
+import io.jans.configapi.security.cache.VerifiedTokenCache;
+import io.jans.configapi.service.metrics.PhaseMetricsService;
 import io.jans.configapi.util.*;
 import io.jans.as.model.common.IntrospectionResponse;
 
 import org.apache.commons.lang.StringUtils;
+import org.eclipse.microprofile.metrics.Timer;
 import org.slf4j.Logger;
 
 import javax.annotation.Priority;
@@ -23,6 +27,7 @@ import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.container.ResourceInfo;
 import javax.ws.rs.core.Response;
 import java.io.Serializable;
+import java.util.Date;
 import java.util.List;
 
 @ApplicationScoped
@@ -45,50 +50,89 @@ public class OpenIdAuthorizationService extends AuthorizationService implements
     @Inject
     OpenIdService openIdService;
 
-    public void processAuthorization(String token, String issuer, ResourceInfo resourceInfo, String method, String path)
-            throws Exception {
-        log.debug("oAuth  Authorization parameters , token:{}, issuer:{}, resourceInfo:{}, method: {}, path: {} ",
-                token, issuer, resourceInfo, method, path);
+    @Inject
+    VerifiedTokenCache verifiedTokenCache;
+
+    @Inject
+    IntrospectionCache introspectionCache;
+
+    @Inject
+    PhaseMetricsService phaseMetricsService;
+
+    public VerifiedToken processAuthorization(String token, String issuer, ResourceInfo resourceInfo, String method,
+            String path) throws Exception {
+        log.debug("oAuth  Authorization parameters , issuer:{}, resourceInfo:{}, method: {}, path: {} ", issuer,
+                resourceInfo, method, path);
 
         if (StringUtils.isBlank(token)) {
             log.error("Token is blank !!!");
             throw new WebApplicationException("Token is blank.", Response.status(Response.Status.UNAUTHORIZED).build());
         }
 
-        log.info("Get requested scopes");
-        List<String> resourceScopes = getRequestedScopes(resourceInfo);
+        log.debug("Get requested scopes");
+        List<String> resourceScopes;
+        try (Timer.Context timerContext = phaseMetricsService.time(PhaseMetricsService.AUTH_RESOURCE_SCOPES)) {
+            resourceScopes = getRequestedScopes(resourceInfo);
+        }
         log.trace("oAuth  Authorization Resource details, resourceInfo: {}, resourceScopes: {} ", resourceInfo,
                 resourceScopes);
 
         // Validate issuer
-        log.info("Validate issuer");
+        log.debug("Validate issuer");
         if (StringUtils.isNotBlank(issuer) && !authUtil.isValidIssuer(issuer)) {
             throw new WebApplicationException("Header Issuer is Invalid.",
                     Response.status(Response.Status.UNAUTHORIZED).build());
         }
 
-        // Check the type of token simple, jwt, reference
-        log.info("Verify if JWT");
         String acccessToken = token.substring("Bearer".length()).trim();
+
+        // Token verified by an earlier request, only the resource scopes remain to be checked
+        VerifiedToken verifiedToken = verifiedTokenCache.get(acccessToken);
+        if (verifiedToken != null) {
+            log.debug("Token already verified - {}", verifiedToken);
+            if (!validateScope(verifiedToken.getScopes(), resourceScopes)) {
+                log.error("Insufficient scopes. Required scope: " + resourceScopes + ", token scopes: "
+                        + verifiedToken.getScopes());
+                throw new WebApplicationException("Insufficient scopes. Required scope",
+                        Response.status(Response.Status.UNAUTHORIZED).build());
+            }
+            return verifiedToken;
+        }
+
+        // Check the type of token simple, jwt, reference
+        log.debug("Verify if JWT");
         boolean isJwtToken = jwtUtil.isJwt(acccessToken);
-        log.debug(" Is Jwt Token isJwtToken = " + isJwtToken);
+        log.debug("Is Jwt Token isJwtToken = {}", isJwtToken);
 
+        Jwt jwt = null;
         if (isJwtToken) {
+            // isJwt only checks the shape, an opaque token may look the same
+            try (Timer.Context timerContext = phaseMetricsService.time(PhaseMetricsService.AUTH_JWT_PARSE)) {
+                jwt = jwtUtil.parse(acccessToken);
+            } catch (InvalidJwtException exp) {
+                log.debug("Token shaped like a JWT failed to parse, introspecting it - " + exp);
+            }
+        }
+
+        if (jwt != null) {
             try {
-                log.info("Since token is JWT Validate it");
-                Jwt jwt = jwtUtil.parse(acccessToken);
-                jwtUtil.validateToken(acccessToken, resourceScopes);
-                return;
+                log.debug("Since token is JWT Validate it");
+                verifiedToken = jwtUtil.validateToken(jwt, resourceScopes);
+                verifiedTokenCache.put(acccessToken, verifiedToken);
+                return verifiedToken;
             } catch (InvalidJwtException exp) {
-                log.error("oAuth Invalid Jwt " + token + " - Exception is " + exp);
+                log.error("oAuth Invalid Jwt - Exception is " + exp);
                 throw new WebApplicationException("Jwt Token is Invalid.",
                         Response.status(Response.Status.UNAUTHORIZED).build());
             }
         }
 
-        log.info("\n Since token is NOT JWT hence introspecting it as Reference token \n");
-        IntrospectionResponse introspectionResponse = openIdService.getIntrospectionResponse(token,
-                token.substring("Bearer".length()).trim(), issuer);
+        log.debug("Since token is NOT JWT hence introspecting it as Reference token");
+        IntrospectionResponse introspectionResponse = introspectionCache.get(issuer, acccessToken, () -> {
+            try (Timer.Context timerContext = phaseMetricsService.time(PhaseMetricsService.AUTH_INTROSPECTION)) {
+                return openIdService.getIntrospectionResponse(token, acccessToken, issuer);
+            }
+        });
 
         log.trace("oAuth  Authorization introspectionResponse = " + introspectionResponse);
         if (introspectionResponse == null || !introspectionResponse.isActive()) {
@@ -97,13 +141,17 @@ public class OpenIdAuthorizationService extends AuthorizationService implements
                     Response.status(Response.Status.UNAUTHORIZED).build());
         }
 
-        log.info("Validate token scopes");
+        log.debug("Validate token scopes");
         if (!validateScope(introspectionResponse.getScope(), resourceScopes)) {
             log.error("Insufficient scopes. Required scope: " + resourceScopes + ", token scopes: "
                     + introspectionResponse.getScope());
             throw new WebApplicationException("Insufficient scopes. Required scope",
                     Response.status(Response.Status.UNAUTHORIZED).build());
         }
+
+        Integer expiresAt = introspectionResponse.getExpiresAt();
+        return new VerifiedToken(issuer, introspectionResponse.getClientId(), introspectionResponse.getScope(),
+                (expiresAt != null ? new Date(expiresAt * 1000L) : null));
     }
 
 }
\ No newline at end of file
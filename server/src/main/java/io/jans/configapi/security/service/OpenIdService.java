@@ -9,6 +9,7 @@ package io.jans.configapi.security.service;
 import io.jans.as.client.service.IntrospectionService;
 import io.jans.as.model.common.IntrospectionResponse;
 import io.jans.configapi.service.auth.ConfigurationService;
+import io.jans.configapi.security.cache.OpenIdConfigurationCache;
 import io.jans.configapi.security.client.AuthClientFactory;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -31,6 +32,12 @@ public class OpenIdService implements Serializable {
     @Inject
     ConfigurationService configurationService;
 
+    @Inject
+    OpenIdConfigurationCache openIdConfigurationCache;
+
+    @Inject
+    AuthClientFactory authClientFactory;
+
     private IntrospectionService introspectionService;
 
     public IntrospectionService getIntrospectionService() {
@@ -38,21 +45,20 @@ public class OpenIdService implements Serializable {
     }
 
     public String getIntrospectionEndpoint() {
-        return configurationService.find().getIntrospectionEndpoint();
+        return configurationService.getIntrospectionEndpoint();
     }
 
     public IntrospectionResponse getIntrospectionResponse(String header, String token, String issuer) throws Exception {
-        log.debug("oAuth Introspection request , header:{}, token:{}, issuer:{}, method: {}, path: {} ", header, token,
-                issuer);
+        log.debug("oAuth Introspection request , issuer:{}", issuer);
 
         String introspectionUrl = getIntrospectionEndpoint();
         if (StringUtils.isNotBlank(issuer)) {
-            introspectionUrl = AuthClientFactory.getIntrospectionEndpoint(issuer);
+            introspectionUrl = openIdConfigurationCache.getIntrospectionEndpoint(issuer);
             log.trace("\n\n oAuth Issuer's introspectionUrl = " + introspectionUrl);
         }
 
-        log.info("\n\n oAuth Final introspectionUrl = " + introspectionUrl);
-        return AuthClientFactory.getIntrospectionResponse(introspectionUrl, header, token, false);
+        log.debug("oAuth Final introspectionUrl = {}", introspectionUrl);
+        return authClientFactory.getIntrospectionResponse(introspectionUrl, header, token, false);
     }
 
 }
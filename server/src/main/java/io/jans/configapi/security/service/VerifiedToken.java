@@ -0,0 +1,60 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.security.service;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Outcome of a successful token verification: everything the per resource
+ * scope check needs, without the token itself.
+ */
+public class VerifiedToken {
+
+    private final String issuer;
+    private final String clientId;
+    private final List<String> scopes;
+    private final Date expiresAt;
+
+    public VerifiedToken(String issuer, List<String> scopes, Date expiresAt) {
+        this(issuer, null, scopes, expiresAt);
+    }
+
+    public VerifiedToken(String issuer, String clientId, List<String> scopes, Date expiresAt) {
+        this.issuer = issuer;
+        this.clientId = clientId;
+        this.scopes = (scopes != null ? Collections.unmodifiableList(scopes) : Collections.emptyList());
+        this.expiresAt = expiresAt;
+    }
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public List<String> getScopes() {
+        return scopes;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(long now) {
+        return expiresAt == null || now >= expiresAt.getTime();
+    }
+
+    @Override
+    public String toString() {
+        return "VerifiedToken [issuer=" + issuer + ", clientId=" + clientId + ", scopes=" + scopes + ", expiresAt="
+                + expiresAt + "]";
+    }
+}
@@ -1,6 +1,16 @@
-
 package io.jans.configapi.service.auth;
 
+import io.jans.as.common.util.AttributeConstants;
+import io.jans.configapi.rest.model.PagedResponse;
+import io.jans.configapi.util.EntryLookup;
+import io.jans.configapi.util.PageCursor;
+import io.jans.model.GluuAttribute;
+import io.jans.model.GluuStatus;
+import io.jans.orm.search.filter.Filter;
+import io.jans.util.StringHelper;
+
+import java.util.Collection;
+import java.util.List;
 import javax.enterprise.context.ApplicationScoped;
 
 /**
@@ -13,4 +23,58 @@ public class AttributeService extends io.jans.as.common.service.AttributeService
     protected boolean isUseLocalCache() {
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * @param active
+     *            null for attributes of any status
+     */
+    public List<GluuAttribute> searchAttributes(String pattern, Boolean active, String[] returnAttributes,
+            int sizeLimit) {
+        return persistenceEntryManager.findEntries(getDnForAttribute(null), GluuAttribute.class,
+                getSearchFilter(pattern, active), returnAttributes, sizeLimit);
+    }
+
+    /**
+     * @param active
+     *            null for attributes of any status
+     */
+    public PagedResponse<GluuAttribute> getAttributesPage(String pattern, Boolean active, String[] returnAttributes,
+            String afterInum, int count) {
+        return PageCursor.findPage(persistenceEntryManager, getDnForAttribute(null), GluuAttribute.class,
+                getSearchFilter(pattern, active), returnAttributes, AttributeConstants.inum, GluuAttribute::getInum,
+                afterInum, count);
+    }
+
+    public List<GluuAttribute> findAttributesByInums(Collection<String> inums) {
+        return EntryLookup.findEntries(persistenceEntryManager, getDnForAttribute(null), GluuAttribute.class,
+                AttributeConstants.inum, inums, null);
+    }
+
+    public GluuAttribute getAttributeByInum(String inum, String[] returnAttributes) {
+        try {
+            return persistenceEntryManager.find(GluuAttribute.class, getDnForAttribute(inum), returnAttributes);
+        } catch (Exception ex) {
+            log.error("Failed to load attribute entry", ex);
+            return null;
+        }
+    }
+
+    private Filter getSearchFilter(String pattern, Boolean active) {
+        Filter searchFilter = null;
+        if (StringHelper.isNotEmpty(pattern)) {
+            String[] targetArray = new String[] { pattern };
+            Filter nameFilter = Filter.createSubstringFilter("jansAttrName", null, targetArray, null);
+            Filter displayNameFilter = Filter.createSubstringFilter(AttributeConstants.displayName, null, targetArray,
+                    null);
+            Filter descriptionFilter = Filter.createSubstringFilter(AttributeConstants.description, null, targetArray,
+                    null);
+            searchFilter = Filter.createORFilter(nameFilter, displayNameFilter, descriptionFilter);
+        }
+        if (active != null) {
+            GluuStatus status = (active ? GluuStatus.ACTIVE : GluuStatus.INACTIVE);
+            Filter statusFilter = Filter.createEqualityFilter("jansStatus", status.getValue());
+            searchFilter = (searchFilter == null ? statusFilter : Filter.createANDFilter(searchFilter, statusFilter));
+        }
+        return searchFilter;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.service.auth;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.configuration.ObjectMapperContextResolver;
+import io.jans.configapi.rest.model.BulkItemResult;
+import io.jans.configapi.rest.model.ImportItemResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.Response;
+
+import org.slf4j.Logger;
+
+/**
+ * Reads the items of bulk requests and runs their writes on a pool of
+ * bulkParallelism threads shared by all bulk requests, so concurrent imports
+ * cannot flood the persistence layer.
+ */
+@ApplicationScoped
+public class BulkOperationService {
+
+    private static final ObjectMapper MAPPER = ObjectMapperContextResolver.createDefaultMapper();
+
+    // Location of the entry, not part of its content
+    private static final Set<String> IGNORED_PROPERTIES = Set.of("dn", "baseDn");
+
+    @Inject
+    Logger log;
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(
+                configurationFactory.getApiAppConfiguration().getBulkParallelism(), runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-operation-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Reads either a JSON array or newline delimited JSON (NDJSON) values, at
+     * most bulkMaxItems of them.
+     */
+    public <T> List<T> readItems(InputStream input, Class<T> itemClass) throws IOException {
+        int maxItems = configurationFactory.getApiAppConfiguration().getBulkMaxItems();
+        List<T> items = new ArrayList<>();
+        // A root level array is unwrapped, NDJSON is read as a sequence of root values
+        try (MappingIterator<T> iterator = MAPPER.readerFor(itemClass).readValues(input)) {
+            while (iterator.hasNextValue()) {
+                if (items.size() >= maxItems) {
+                    throw new BadRequestException("A bulk request accepts at most " + maxItems + " items");
+                }
+                items.add(iterator.nextValue());
+            }
+        } catch (JsonProcessingException ex) {
+            throw new BadRequestException("Invalid bulk request item " + items.size() + ": " + ex.getOriginalMessage());
+        }
+        return items;
+    }
+
+    /**
+     * Runs the operation for every item and returns the results in item order.
+     * An exception thrown by the operation fails its item only.
+     */
+    public <T> List<BulkItemResult> execute(List<T> items, BulkOperation<T> operation) {
+        List<Future<BulkItemResult>> futures = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            final int index = i;
+            final T item = items.get(i);
+            Callable<BulkItemResult> task = () -> operation.apply(index, item);
+            futures.add(executor.submit(task));
+        }
+
+        List<BulkItemResult> results = new ArrayList<>(items.size());
+        for (int i = 0; i < futures.size(); i++) {
+            results.add(getResult(i, futures.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * Upserts the items: an item whose key matches no existing entry is
+     * created, otherwise the entry is updated unless the item equals it. With
+     * dryRun nothing is written and the results describe what the import would
+     * do, including the properties each update changes.
+     *
+     * @param existingEntries
+     *            entries already stored for the keys of the items
+     */
+    public <T> List<BulkItemResult> importItems(List<T> items, Map<String, T> existingEntries,
+            Function<T, String> keyFunction, boolean dryRun, ImportWriter<T> writer) {
+        return execute(items, (index, item) -> {
+            String key = keyFunction.apply(item);
+            try {
+                T existingEntry = (key != null ? existingEntries.get(key) : null);
+                if (existingEntry == null) {
+                    String id = (dryRun ? key : writer.create(item));
+                    return new ImportItemResult(index, id, Response.Status.CREATED.getStatusCode(),
+                            ImportItemResult.CREATE, null);
+                }
+
+                List<String> changes = getChanges(existingEntry, item);
+                if (changes.isEmpty()) {
+                    return new ImportItemResult(index, key, Response.Status.OK.getStatusCode(),
+                            ImportItemResult.UNCHANGED, changes);
+                }
+                if (!dryRun) {
+                    writer.update(item, existingEntry);
+                }
+                return new ImportItemResult(index, key, Response.Status.OK.getStatusCode(), ImportItemResult.UPDATE,
+                        changes);
+            } catch (Exception ex) {
+                log.error("Failed to import item " + index + " , key = " + key, ex);
+                return BulkItemResult.failure(index, key, Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+                        ex.getMessage());
+            }
+        });
+    }
+
+    private static List<String> getChanges(Object existingEntry, Object item) {
+        JsonNode existingNode = MAPPER.valueToTree(existingEntry);
+        JsonNode itemNode = MAPPER.valueToTree(item);
+        Set<String> fieldNames = new TreeSet<>();
+        existingNode.fieldNames().forEachRemaining(fieldNames::add);
+        itemNode.fieldNames().forEachRemaining(fieldNames::add);
+        fieldNames.removeAll(IGNORED_PROPERTIES);
+
+        List<String> changes = new ArrayList<>();
+        for (String fieldName : fieldNames) {
+            if (!Objects.equals(existingNode.get(fieldName), itemNode.get(fieldName))) {
+                changes.add(fieldName);
+            }
+        }
+        return changes;
+    }
+
+    private BulkItemResult getResult(int index, Future<BulkItemResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return BulkItemResult.failure(index, null, Response.Status.SERVICE_UNAVAILABLE.getStatusCode(),
+                    "Interrupted");
+        } catch (ExecutionException ex) {
+            log.error("Bulk operation failed for item " + index, ex.getCause());
+            return BulkItemResult.failure(index, null, Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+                    String.valueOf(ex.getCause().getMessage()));
+        }
+    }
+
+    @FunctionalInterface
+    public interface BulkOperation<T> {
+
+        BulkItemResult apply(int index, T item) throws Exception;
+    }
+
+    public interface ImportWriter<T> {
+
+        /**
+         * @return the identifier of the created entry
+         */
+        String create(T item) throws Exception;
+
+        void update(T item, T existingEntry) throws Exception;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.service.auth;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.jans.as.common.model.registration.Client;
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.model.configuration.AppConfiguration;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+
+/**
+ * Read-through cache of full client entries keyed by inum, bounded by
+ * clientCacheMaxSize entries and clientCacheTtlInSeconds. A size of 0 turns it
+ * off.
+ * <p>
+ * Writes made through {@link ClientService} invalidate the entry and fire a
+ * {@link ClientInvalidationEvent}. This is an optional cross-node hook: an
+ * observer may relay the event to the other nodes, which then call
+ * {@link #evict(String)}. Without a relay, entries changed on another node
+ * are stale for at most the TTL. The cached instances are shared between
+ * callers and must not be modified.
+ */
+@ApplicationScoped
+public class ClientCache {
+
+    private static final int VERSION_STRIPES = 64;
+
+    @Inject
+    Logger log;
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    @Inject
+    Event<ClientInvalidationEvent> invalidationEvent;
+
+    // Missing clients are cached as well, as empty
+    private Cache<String, Optional<Client>> cache;
+
+    // Bumped on every invalidation, so that a load overlapping a write can tell
+    // it may have read the entry before the write
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    @PostConstruct
+    public void init() {
+        AppConfiguration appConfiguration = configurationFactory.getApiAppConfiguration();
+        this.cache = CacheBuilder.newBuilder().maximumSize(Math.max(appConfiguration.getClientCacheMaxSize(), 0))
+                .expireAfterWrite(appConfiguration.getClientCacheTtlInSeconds(), TimeUnit.SECONDS).build();
+    }
+
+    /**
+     * Returns the cached client, calling the loader on a miss. Concurrent
+     * misses for the same inum share a single load; loader failures are not
+     * cached. A value loaded while the entry was invalidated is returned to
+     * the callers of that load but not kept.
+     */
+    public Client get(String inum, Callable<Client> loader) throws Exception {
+        if (inum == null) {
+            return loader.call();
+        }
+        int stripe = stripe(inum);
+        long version = versions.get(stripe);
+        Optional<Client> client;
+        try {
+            client = cache.get(inum, () -> Optional.ofNullable(loader.call()));
+        } catch (ExecutionException | UncheckedExecutionException ex) {
+            if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            }
+            throw ex;
+        }
+        if (versions.get(stripe) != version) {
+            cache.invalidate(inum);
+        }
+        return client.orElse(null);
+    }
+
+    /**
+     * Drops the entry after a local write and notifies the observers of
+     * {@link ClientInvalidationEvent}.
+     */
+    public void invalidate(String inum) {
+        if (inum == null) {
+            return;
+        }
+        evict(inum);
+        invalidationEvent.fire(new ClientInvalidationEvent(inum));
+    }
+
+    /**
+     * Drops the entry without notifying anyone, e.g. when a relay receives an
+     * invalidation from another node.
+     */
+    public void evict(String inum) {
+        log.trace("Evicting client " + inum + " from cache");
+        versions.incrementAndGet(stripe(inum));
+        cache.invalidate(inum);
+    }
+
+    private static int stripe(String inum) {
+        return Math.floorMod(inum.hashCode(), VERSION_STRIPES);
+    }
+
+    /**
+     * Fired after a local write to a client.
+     */
+    public static class ClientInvalidationEvent {
+
+        private final String inum;
+
+        public ClientInvalidationEvent(String inum) {
+            this.inum = inum;
+        }
+
+        public String getInum() {
+            return inum;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.service.auth;
+
+import io.jans.as.common.model.registration.Client;
+import io.jans.as.common.service.common.EncryptionService;
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.exception.OxIntializationException;
+import io.jans.util.security.StringEncrypter;
+import io.jans.util.security.StringEncrypter.EncryptionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+
+/**
+ * Decrypts client secrets for the responses of the client endpoints.
+ * <p>
+ * Lists are split over a fork-join pool of secretDecryptionParallelism
+ * workers. A {@link StringEncrypter} serializes the use of its cipher, so each
+ * worker decrypts with an instance of its own rather than through the shared
+ * {@link EncryptionService}.
+ */
+@ApplicationScoped
+public class ClientSecretService {
+
+    // Below this size the hand-off to the pool costs more than it saves
+    private static final int MIN_PARALLEL_SIZE = 32;
+
+    @Inject
+    Logger log;
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    @Inject
+    EncryptionService encryptionService;
+
+    private ForkJoinPool pool;
+
+    private final ThreadLocal<StringEncrypter> workerStringEncrypter = ThreadLocal.withInitial(() -> {
+        try {
+            return configurationFactory.getStringEncrypter();
+        } catch (OxIntializationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    });
+
+    @PostConstruct
+    public void init() {
+        this.pool = new ForkJoinPool(configurationFactory.getApiAppConfiguration().getSecretDecryptionParallelism(),
+                forkJoinPool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory
+                            .newThread(forkJoinPool);
+                    thread.setName("secret-decryption-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        this.pool.shutdownNow();
+    }
+
+    public Client decryptSecret(Client client) {
+        if (client.getClientSecret() != null) {
+            try {
+                client.setClientSecret(encryptionService.decrypt(client.getClientSecret()));
+            } catch (EncryptionException exp) {
+                log.error("Error while client([" + client + "]) secret decryption - " + exp + "!");
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Decrypts the secrets of the clients in place.
+     */
+    public void decryptSecrets(List<Client> clients) {
+        if (clients.size() < MIN_PARALLEL_SIZE) {
+            clients.forEach(this::decryptSecret);
+            return;
+        }
+
+        int parallelism = pool.getParallelism();
+        int sliceSize = (clients.size() + parallelism - 1) / parallelism;
+        List<Callable<Void>> tasks = new ArrayList<>(parallelism);
+        for (int start = 0; start < clients.size(); start += sliceSize) {
+            List<Client> slice = clients.subList(start, Math.min(start + sliceSize, clients.size()));
+            tasks.add(() -> {
+                StringEncrypter stringEncrypter = workerStringEncrypter.get();
+                for (Client client : slice) {
+                    decryptSecret(client, stringEncrypter);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : pool.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while decrypting client secrets", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Failed to decrypt client secrets", ex.getCause());
+        }
+    }
+
+    private void decryptSecret(Client client, StringEncrypter stringEncrypter) {
+        if (client.getClientSecret() != null) {
+            try {
+                client.setClientSecret(stringEncrypter.decrypt(client.getClientSecret()));
+            } catch (EncryptionException exp) {
+                log.error("Error while client([" + client + "]) secret decryption - " + exp + "!");
+            }
+        }
+    }
+}
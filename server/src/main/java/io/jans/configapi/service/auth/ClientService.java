@@ -13,15 +13,25 @@ import io.jans.as.common.util.AttributeConstants;
 import io.jans.as.model.common.SubjectType;
 import io.jans.as.model.crypto.signature.SignatureAlgorithm;
 import io.jans.as.model.register.ApplicationType;
+import io.jans.configapi.rest.model.PagedResponse;
+import io.jans.configapi.util.EntryLookup;
+import io.jans.configapi.util.PageCursor;
+import io.jans.configapi.service.metrics.TimedPersistence;
 import io.jans.orm.PersistenceEntryManager;
 import io.jans.orm.search.filter.Filter;
 import io.jans.util.StringHelper;
+import org.apache.commons.lang.SerializationUtils;
 import org.slf4j.Logger;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author Mougang T.Gasmyr
@@ -33,6 +43,7 @@ public class ClientService implements Serializable {
     private static final long serialVersionUID = 7912416439116338984L;
 
     @Inject
+    @TimedPersistence
     private PersistenceEntryManager persistenceEntryManager;
 
     @Inject
@@ -44,26 +55,64 @@ public class ClientService implements Serializable {
     @Inject
     private InumService inumService;
 
+    @Inject
+    private ClientCache clientCache;
+
     public boolean contains(String clientDn) {
         return persistenceEntryManager.contains(clientDn, Client.class);
     }
 
     public void addClient(Client client) {
         persistenceEntryManager.persist(client);
+        clientCache.invalidate(client.getClientId());
     }
 
     public void removeClient(Client client) {
         persistenceEntryManager.removeRecursively(client.getDn(), Client.class);
+        clientCache.invalidate(client.getClientId());
+    }
+
+    public void removeClientByInum(String inum) {
+        persistenceEntryManager.removeRecursively(getDnForClient(inum), Client.class);
+        clientCache.invalidate(inum);
     }
 
     public void updateClient(Client client) {
         persistenceEntryManager.merge(client);
+        clientCache.invalidate(client.getClientId());
     }
 
     public Client getClientByInum(String inum) {
+        return getClientByInum(inum, null);
+    }
+
+    /**
+     * Returns the client shared through {@link ClientCache}, or null if it is
+     * missing. The entry must not be modified; use
+     * {@link #getClientByInum(String)} for a copy.
+     */
+    public Client getCachedClient(String inum) {
+        try {
+            return clientCache.get(inum, () -> persistenceEntryManager.find(Client.class, getDnForClient(inum)));
+        } catch (Exception ex) {
+            logger.error("Failed to load client entry", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Full entries are copied from {@link ClientCache}, projections always read
+     * from the persistence layer.
+     */
+    public Client getClientByInum(String inum, String[] returnAttributes) {
         Client result = null;
         try {
-            result = persistenceEntryManager.find(Client.class, getDnForClient(inum));
+            if (returnAttributes == null) {
+                Client client = getCachedClient(inum);
+                result = client == null ? null : (Client) SerializationUtils.clone(client);
+            } else {
+                result = persistenceEntryManager.find(Client.class, getDnForClient(inum), returnAttributes);
+            }
         } catch (Exception ex) {
             logger.error("Failed to load client entry", ex);
         }
@@ -71,18 +120,38 @@ public class ClientService implements Serializable {
     }
 
     public List<Client> searchClients(String pattern, int sizeLimit) {
+        return searchClients(pattern, sizeLimit, null);
+    }
+
+    public List<Client> searchClients(String pattern, int sizeLimit, String[] returnAttributes) {
+        return persistenceEntryManager.findEntries(getDnForClient(null), Client.class, createSearchFilter(pattern),
+                returnAttributes, sizeLimit);
+    }
+
+    public PagedResponse<Client> getClientsPage(String pattern, String[] returnAttributes, String afterInum,
+            int count) {
+        Filter searchFilter = (StringHelper.isNotEmpty(pattern) ? createSearchFilter(pattern) : null);
+        return PageCursor.findPage(persistenceEntryManager, getDnForClient(null), Client.class, searchFilter,
+                returnAttributes, AttributeConstants.inum, Client::getClientId, afterInum, count);
+    }
+
+    public Filter createSearchFilter(String pattern) {
         String[] targetArray = new String[] { pattern };
         Filter displayNameFilter = Filter.createSubstringFilter(AttributeConstants.displayName, null, targetArray,
                 null);
         Filter descriptionFilter = Filter.createSubstringFilter(AttributeConstants.description, null, targetArray,
                 null);
         Filter inumFilter = Filter.createSubstringFilter(AttributeConstants.inum, null, targetArray, null);
-        Filter searchFilter = Filter.createORFilter(displayNameFilter, descriptionFilter, inumFilter);
-        return persistenceEntryManager.findEntries(getDnForClient(null), Client.class, searchFilter, sizeLimit);
+        return Filter.createORFilter(displayNameFilter, descriptionFilter, inumFilter);
     }
 
     public List<Client> getAllClients(int sizeLimit) {
-        return persistenceEntryManager.findEntries(getDnForClient(null), Client.class, null, sizeLimit);
+        return getAllClients(sizeLimit, null);
+    }
+
+    public List<Client> getAllClients(int sizeLimit, String[] returnAttributes) {
+        return persistenceEntryManager.findEntries(getDnForClient(null), Client.class, null, returnAttributes,
+                sizeLimit);
     }
 
     public List<Client> getAllClients() {
@@ -133,4 +202,43 @@ public class ClientService implements Serializable {
         } while (persistenceEntryManager.contains(newDn, Client.class));
         return newInum;
     }
+
+    /**
+     * Generates count distinct inums, checking them for collisions with one
+     * search per chunk instead of one lookup per inum.
+     *
+     * @param reservedInums
+     *            inums not stored yet but already taken, e.g. the explicit
+     *            ones of the same bulk request
+     */
+    public List<String> generateInumsForNewClients(int count, Collection<String> reservedInums) {
+        Set<String> inums = new LinkedHashSet<>();
+        int trycount = 0;
+        while (inums.size() < count) {
+            Set<String> candidates = new LinkedHashSet<>();
+            while (candidates.size() < count - inums.size()) {
+                String candidate = (trycount < InumService.MAX_IDGEN_TRY_COUNT ? inumService.generateId("client")
+                        : inumService.generateDefaultId());
+                if (!inums.contains(candidate) && !reservedInums.contains(candidate)) {
+                    candidates.add(candidate);
+                }
+            }
+            trycount++;
+            candidates.removeAll(findExistingInums(candidates));
+            inums.addAll(candidates);
+        }
+        return new ArrayList<>(inums);
+    }
+
+    /**
+     * Returns the inums among the given ones that belong to an existing client.
+     */
+    public Set<String> findExistingInums(Collection<String> inums) {
+        Set<String> existing = new HashSet<>();
+        for (Client client : EntryLookup.findEntries(persistenceEntryManager, getDnForClient(null), Client.class,
+                AttributeConstants.inum, inums, new String[] { AttributeConstants.inum })) {
+            existing.add(client.getClientId());
+        }
+        return existing;
+    }
 }
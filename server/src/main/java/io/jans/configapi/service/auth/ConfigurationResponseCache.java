@@ -0,0 +1,150 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.service.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.configuration.ObjectMapperContextResolver;
+import io.jans.configapi.model.configuration.AppConfiguration;
+import io.jans.configapi.util.ContentEncoding;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+
+/**
+ * Serialized responses of the read-mostly configuration endpoints, kept per
+ * endpoint for the entity tag (revision) they were built from.
+ * <p>
+ * Polls are answered from memory: 304 when If-None-Match holds the current
+ * tag, the cached bytes otherwise. Only the first request after a write has
+ * changed the tag serializes the configuration again. No Last-Modified is
+ * sent: each node builds its entries at its own time, so only the tag is
+ * the same on every node for the same revision. When compression is
+ * enabled, the gzipped bytes are kept as well, so each revision is compressed
+ * once; they are sent to the clients accepting gzip.
+ */
+@ApplicationScoped
+public class ConfigurationResponseCache {
+
+    private static final ObjectMapper MAPPER = ObjectMapperContextResolver.createDefaultMapper();
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    private final ConcurrentMap<String, CachedResponse> responses = new ConcurrentHashMap<>();
+
+    /**
+     * @param key
+     *            identifies the endpoint
+     * @param entityTag
+     *            current tag of the configuration the endpoint returns, null
+     *            when it is unknown: the entity is then loaded every time and
+     *            neither cached nor tagged
+     * @param entityLoader
+     *            loads the entity to return, called only when no response is
+     *            cached for the tag
+     */
+    public Response getResponse(Request request, String acceptEncoding, String key, EntityTag entityTag,
+            Callable<?> entityLoader) throws Exception {
+        if (entityTag == null) {
+            // Nothing would tell when a cached response becomes stale
+            responses.remove(key);
+            CacheControl cacheControl = new CacheControl();
+            cacheControl.setPrivate(true);
+            cacheControl.setNoCache(true);
+            return Response.ok(toBytes(entityLoader.call()), MediaType.APPLICATION_JSON_TYPE)
+                    .cacheControl(cacheControl).build();
+        }
+
+        CachedResponse cachedResponse = responses.get(key);
+        if (cachedResponse == null || !cachedResponse.entityTag.equals(entityTag)) {
+            // Concurrent misses may serialize the same revision twice, the last one is kept
+            cachedResponse = new CachedResponse(entityTag, toBytes(entityLoader.call()));
+            responses.put(key, cachedResponse);
+        }
+
+        Response.ResponseBuilder builder = request.evaluatePreconditions(entityTag);
+        if (builder == null) {
+            builder = Response.ok().type(MediaType.APPLICATION_JSON_TYPE);
+            if (isCompressed(cachedResponse.body) && ContentEncoding.acceptsGzip(acceptEncoding)) {
+                builder.entity(cachedResponse.getGzippedBody(appConfiguration().getCompressionLevel()))
+                        .header(HttpHeaders.CONTENT_ENCODING, ContentEncoding.GZIP);
+            } else {
+                builder.entity(cachedResponse.body);
+            }
+        }
+        return builder.tag(entityTag).cacheControl(getCacheControl())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+    }
+
+    // A String is already JSON, as when returned as the entity of a response
+    private static byte[] toBytes(Object entity) throws IOException {
+        if (entity instanceof String) {
+            return ((String) entity).getBytes(StandardCharsets.UTF_8);
+        }
+        return MAPPER.writeValueAsBytes(entity);
+    }
+
+    private CacheControl getCacheControl() {
+        int maxAge = appConfiguration().getConfigurationResponseCacheMaxAgeInSeconds();
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        if (maxAge > 0) {
+            cacheControl.setMaxAge(maxAge);
+        } else {
+            // Clients revalidate every time, which costs a 304 at most
+            cacheControl.setNoCache(true);
+        }
+        return cacheControl;
+    }
+
+    private boolean isCompressed(byte[] body) {
+        AppConfiguration appConfiguration = appConfiguration();
+        return appConfiguration.isCompressionEnabled() && body.length >= appConfiguration.getCompressionMinSize();
+    }
+
+    private AppConfiguration appConfiguration() {
+        return configurationFactory.getApiAppConfiguration();
+    }
+
+    private static class CachedResponse {
+
+        private final EntityTag entityTag;
+        private final byte[] body;
+        private volatile byte[] gzippedBody;
+
+        CachedResponse(EntityTag entityTag, byte[] body) {
+            this.entityTag = entityTag;
+            this.body = body;
+        }
+
+        byte[] getGzippedBody(int level) {
+            byte[] gzipped = gzippedBody;
+            if (gzipped == null) {
+                try {
+                    gzipped = ContentEncoding.gzip(body, level);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                gzippedBody = gzipped;
+            }
+            return gzipped;
+        }
+    }
+}
@@ -6,52 +6,279 @@
 
 package io.jans.configapi.service.auth;
 
-import io.jans.as.common.service.common.ApplicationFactory;
 import io.jans.as.model.config.Conf;
 import io.jans.as.model.configuration.AppConfiguration;
 import io.jans.as.persistence.model.configuration.GluuConfiguration;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.rest.model.ApiError;
+import io.jans.configapi.service.metrics.TimedPersistence;
 import io.jans.orm.PersistenceEntryManager;
 import io.jans.util.StringHelper;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
-import javax.inject.Named;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Response;
 
 /**
+ * Reads of the Authorization Server configuration are served from snapshots
+ * shared across requests. The Conf snapshot is reloaded when the persisted
+ * revision changes, which is checked at most every
+ * configurationCacheRevisionCheckIntervalInSeconds; the GluuConfiguration
+ * snapshot, which has no revision, is reloaded after the same interval. Local
+ * writes drop the snapshots.
+ * <p>
+ * A snapshot never hands out its own instance: {@link #findConf()} and
+ * {@link #findGluuConfiguration()} return copies read from the bytes the
+ * snapshot was serialized to, so a caller modifying its copy cannot alter what
+ * other requests see. The entity tag of a snapshot is available without
+ * copying through {@link #getConfSnapshot()} and
+ * {@link #getGluuConfigurationSnapshot()}. Callers that update the
+ * configuration load it from persistence with {@link #loadConf()} or
+ * {@link #loadGluuConfiguration()}.
+ * <p>
+ * Writes are compare-and-swap: a copy is merged only if the persisted entry is
+ * still the one it was loaded from, as told by its entity tag (the revision of
+ * the Conf, a digest of the content of the GluuConfiguration, which has no
+ * revision). The check and the write are serialized within this node; the ORM
+ * has no conditional modify, so between nodes they are not atomic.
+ *
  * @author Yuriy Zabrovarnyy
  */
 @ApplicationScoped
 public class ConfigurationService {
 
+    private static final String[] REVISION_ATTRIBUTES = new String[] { "jansRevision" };
+
+    // Copies keep every property, sorted so that equal content always gives the same digest
+    private static final ObjectMapper SNAPSHOT_MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY);
+
     @Inject
-    @Named(ApplicationFactory.PERSISTENCE_ENTRY_MANAGER_NAME)
+    @TimedPersistence
     PersistenceEntryManager persistenceManager;
 
     @Inject
     ConfigurationFactory configurationFactory;
 
+    private final AtomicReference<ConfigurationSnapshot<Conf>> confSnapshot = new AtomicReference<>(
+            ConfigurationSnapshot.empty(Conf.class));
+    private final AtomicReference<ConfigurationSnapshot<GluuConfiguration>> gluuConfigurationSnapshot =
+            new AtomicReference<>(ConfigurationSnapshot.empty(GluuConfiguration.class));
+
+    private final Object mergeLock = new Object();
+
+    /**
+     * Returns a private copy of the current Authorization Server
+     * configuration.
+     */
     public Conf findConf() {
+        return getConfSnapshot().copy();
+    }
+
+    public ConfigurationSnapshot<Conf> getConfSnapshot() {
+        final long now = System.currentTimeMillis();
+        final ConfigurationSnapshot<Conf> snapshot = confSnapshot.get();
+        if (snapshot.isFresh(now, getRevisionCheckIntervalMillis())) {
+            return snapshot;
+        }
+
+        if (snapshot.value != null && snapshot.value.getRevision() == findRevision()) {
+            final ConfigurationSnapshot<Conf> checked = snapshot.checkedAt(now);
+            confSnapshot.compareAndSet(snapshot, checked);
+            return checked;
+        }
+
+        final Conf conf = loadConf();
+        // Without an entry there is no revision to tag, nor to cache a response for
+        final ConfigurationSnapshot<Conf> loaded = new ConfigurationSnapshot<>(Conf.class, conf,
+                (conf != null ? getEntityTag(conf) : null), now);
+        confSnapshot.compareAndSet(snapshot, loaded);
+        return loaded;
+    }
+
+    /**
+     * Reads the configuration entry from persistence, bypassing the snapshot.
+     */
+    public Conf loadConf() {
         final String dn = configurationFactory.getConfigurationDn();
         return persistenceManager.find(dn, Conf.class, null);
     }
 
+    /**
+     * Writes a copy obtained from {@link #loadConf()} and bumps its revision.
+     *
+     * @throws ClientErrorException
+     *             412 when the persisted revision is no longer the one of the
+     *             copy
+     */
     public void merge(Conf conf) {
-        conf.setRevision(conf.getRevision() + 1);
-        persistenceManager.merge(conf);
+        synchronized (mergeLock) {
+            if (findRevision() != conf.getRevision()) {
+                throw getConcurrentModificationException();
+            }
+            conf.setRevision(conf.getRevision() + 1);
+            try {
+                persistenceManager.merge(conf);
+            } finally {
+                confSnapshot.set(ConfigurationSnapshot.empty(Conf.class));
+            }
+        }
+    }
+
+    /**
+     * Writes a copy obtained from {@link #loadGluuConfiguration()}.
+     *
+     * @param expectedTag
+     *            tag of the copy as loaded
+     * @throws ClientErrorException
+     *             412 when the persisted entry no longer has the expected tag
+     */
+    public void merge(GluuConfiguration conf, EntityTag expectedTag) {
+        Objects.requireNonNull(expectedTag, "expectedTag");
+        synchronized (mergeLock) {
+            if (!expectedTag.equals(getEntityTag(loadGluuConfiguration()))) {
+                throw getConcurrentModificationException();
+            }
+            try {
+                persistenceManager.merge(conf);
+            } finally {
+                gluuConfigurationSnapshot.set(ConfigurationSnapshot.empty(GluuConfiguration.class));
+            }
+        }
     }
 
-    public void merge(GluuConfiguration conf) {
-        persistenceManager.merge(conf);
+    /**
+     * Loads a copy of the GluuConfiguration, lets the preconditions check its
+     * tag (e.g. against If-Match), applies the update to it and writes it back
+     * with {@link #merge(GluuConfiguration, EntityTag)}.
+     *
+     * @return the tag of the written configuration
+     */
+    public EntityTag mergeGluuConfiguration(Consumer<EntityTag> preconditions, Consumer<GluuConfiguration> update) {
+        GluuConfiguration conf = loadGluuConfiguration();
+        EntityTag entityTag = getEntityTag(conf);
+        preconditions.accept(entityTag);
+        update.accept(conf);
+        merge(conf, entityTag);
+        return getEntityTag(conf);
     }
 
+    /**
+     * Strong entity tag of the Authorization Server configuration: its
+     * revision.
+     */
+    public EntityTag getEntityTag(Conf conf) {
+        return new EntityTag(Long.toString(conf.getRevision()));
+    }
+
+    /**
+     * Strong entity tag of the GluuConfiguration: a digest of its content.
+     */
+    public EntityTag getEntityTag(GluuConfiguration gluuConfiguration) {
+        return computeEntityTag(toBytes(gluuConfiguration));
+    }
+
+    private static EntityTag computeEntityTag(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return new EntityTag(Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Failed to compute the entity tag of the configuration", ex);
+        }
+    }
+
+    private static byte[] toBytes(Object entry) {
+        try {
+            return SNAPSHOT_MAPPER.writeValueAsBytes(entry);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize the configuration", ex);
+        }
+    }
+
+    private static ClientErrorException getConcurrentModificationException() {
+        ApiError error = new ApiError.ErrorBuilder()
+                .withCode(String.valueOf(Response.Status.PRECONDITION_FAILED.getStatusCode()))
+                .withMessage("The configuration was modified concurrently")
+                .andDescription("Read the configuration again before updating it").build();
+        return new ClientErrorException(
+                Response.status(Response.Status.PRECONDITION_FAILED).entity(error).build());
+    }
+
+    /**
+     * Returns a private copy of the dynamic configuration.
+     */
     public AppConfiguration find() {
-        final Conf conf = findConf();
-        return conf.getDynamic();
+        return findConf().getDynamic();
+    }
+
+    public String getIssuer() {
+        return getConfSnapshot().value.getDynamic().getIssuer();
+    }
+
+    public String getJwksUri() {
+        return getConfSnapshot().value.getDynamic().getJwksUri();
     }
 
+    public String getTokenEndpoint() {
+        return getConfSnapshot().value.getDynamic().getTokenEndpoint();
+    }
+
+    public String getTokenRevocationEndpoint() {
+        return getConfSnapshot().value.getDynamic().getTokenRevocationEndpoint();
+    }
+
+    public String getIntrospectionEndpoint() {
+        return getConfSnapshot().value.getDynamic().getIntrospectionEndpoint();
+    }
+
+    /**
+     * Returns a private copy of the current GluuConfiguration, or null when
+     * there is none.
+     */
     public GluuConfiguration findGluuConfiguration() {
-        String configurationDn = findConf().getStatics().getBaseDn().getConfiguration();
+        return getGluuConfigurationSnapshot().copy();
+    }
+
+    public ConfigurationSnapshot<GluuConfiguration> getGluuConfigurationSnapshot() {
+        final long now = System.currentTimeMillis();
+        final ConfigurationSnapshot<GluuConfiguration> snapshot = gluuConfigurationSnapshot.get();
+        if (snapshot.isFresh(now, getRevisionCheckIntervalMillis())) {
+            return snapshot;
+        }
+
+        final GluuConfiguration gluuConfiguration = loadGluuConfiguration();
+        final ConfigurationSnapshot<GluuConfiguration> loaded = new ConfigurationSnapshot<>(GluuConfiguration.class,
+                gluuConfiguration, null, now);
+        gluuConfigurationSnapshot.compareAndSet(snapshot, loaded);
+        return loaded;
+    }
+
+    /**
+     * Reads the GluuConfiguration entry from persistence, bypassing the
+     * snapshot.
+     */
+    public GluuConfiguration loadGluuConfiguration() {
+        String configurationDn = getConfSnapshot().value.getStatics().getBaseDn().getConfiguration();
         if (StringHelper.isEmpty(configurationDn)) {
             return null;
         }
@@ -61,4 +288,80 @@ public class ConfigurationService {
     public String getPersistenceType() {
         return configurationFactory.getBaseConfiguration().getString("persistence.type");
     }
+
+    private long findRevision() {
+        final String dn = configurationFactory.getConfigurationDn();
+        final Conf conf = persistenceManager.find(dn, Conf.class, REVISION_ATTRIBUTES);
+        return (conf != null ? conf.getRevision() : -1);
+    }
+
+    private long getRevisionCheckIntervalMillis() {
+        return TimeUnit.SECONDS.toMillis(
+                configurationFactory.getApiAppConfiguration().getConfigurationCacheRevisionCheckIntervalInSeconds());
+    }
+
+    /**
+     * Configuration as loaded at some point, with its entity tag. The loaded
+     * instance stays inside the snapshot; callers get copies.
+     */
+    public static final class ConfigurationSnapshot<T> {
+
+        private final Class<T> type;
+        private final T value;
+        private final byte[] bytes;
+        private final EntityTag entityTag;
+        private final long checkedAt;
+
+        /**
+         * @param entityTag
+         *            tag of the value, null for the digest of its content
+         */
+        ConfigurationSnapshot(Class<T> type, T value, EntityTag entityTag, long checkedAt) {
+            this.type = type;
+            this.value = value;
+            this.bytes = (value != null ? toBytes(value) : null);
+            this.entityTag = (entityTag != null || value == null ? entityTag : computeEntityTag(bytes));
+            this.checkedAt = checkedAt;
+        }
+
+        private ConfigurationSnapshot(ConfigurationSnapshot<T> snapshot, long checkedAt) {
+            this.type = snapshot.type;
+            this.value = snapshot.value;
+            this.bytes = snapshot.bytes;
+            this.entityTag = snapshot.entityTag;
+            this.checkedAt = checkedAt;
+        }
+
+        // A distinct instance per invalidation, so a load racing with a write cannot publish stale data
+        static <T> ConfigurationSnapshot<T> empty(Class<T> type) {
+            return new ConfigurationSnapshot<>(type, null, null, 0);
+        }
+
+        public EntityTag getEntityTag() {
+            return entityTag;
+        }
+
+        /**
+         * Returns a new copy of the configuration on every call, null when
+         * there is none.
+         */
+        public T copy() {
+            if (bytes == null) {
+                return null;
+            }
+            try {
+                return SNAPSHOT_MAPPER.readValue(bytes, type);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to copy the configuration", ex);
+            }
+        }
+
+        boolean isFresh(long now, long intervalMillis) {
+            return value != null && now - checkedAt < intervalMillis;
+        }
+
+        ConfigurationSnapshot<T> checkedAt(long now) {
+            return new ConfigurationSnapshot<>(this, now);
+        }
+    }
 }
@@ -9,7 +9,6 @@ package io.jans.configapi.service.auth;
 import com.github.fge.jackson.JacksonUtils;
 import com.google.common.collect.Lists;
 import io.jans.as.common.service.common.EncryptionService;
-import io.jans.as.persistence.model.configuration.GluuConfiguration;
 import io.jans.as.persistence.model.configuration.IDPAuthConf;
 import io.jans.orm.couchbase.model.CouchbaseConnectionConfiguration;
 import io.jans.util.security.StringEncrypter;
@@ -17,8 +16,10 @@ import org.apache.commons.lang3.StringUtils;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.ws.rs.core.EntityTag;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -37,29 +38,31 @@ public class CouchbaseConfService {
                 .map(IDPAuthConf::asCouchbaseConfiguration).collect(Collectors.toList());
     }
 
-    public void save(CouchbaseConnectionConfiguration conf) {
-        save(Lists.newArrayList(conf));
+    /**
+     * @param preconditions
+     *            checks the tag of the configuration about to be changed
+     * @return the tag of the written configuration
+     */
+    public EntityTag save(CouchbaseConnectionConfiguration conf, Consumer<EntityTag> preconditions) {
+        return save(Lists.newArrayList(conf), preconditions);
     }
 
-    public void save(List<CouchbaseConnectionConfiguration> confs) {
-        GluuConfiguration configuration = configurationService.findGluuConfiguration();
-
-        configuration.setIdpAuthn(getOrCreateIDPAuthConfs(configuration.getIdpAuthn(), confs));
-        configurationService.merge(configuration);
+    public EntityTag save(List<CouchbaseConnectionConfiguration> confs, Consumer<EntityTag> preconditions) {
+        return configurationService.mergeGluuConfiguration(preconditions, configuration -> configuration
+                .setIdpAuthn(getOrCreateIDPAuthConfs(configuration.getIdpAuthn(), confs)));
     }
 
-    public void remove(String name) {
-        final GluuConfiguration gluuConfiguration = configurationService.findGluuConfiguration();
-        final List<IDPAuthConf> existing = gluuConfiguration.getIdpAuthn();
-        Optional<IDPAuthConf> existingConf = existing.stream()
-                .filter(o -> o.getName() != null && o.getName().equals(name)).findFirst();
-        if (existingConf.isEmpty())
-            return; // does not exist, nothing to remove
-
-        existing.remove(existingConf.get());
-        gluuConfiguration.setIdpAuthn(existing);
+    public EntityTag remove(String name, Consumer<EntityTag> preconditions) {
+        return configurationService.mergeGluuConfiguration(preconditions, gluuConfiguration -> {
+            final List<IDPAuthConf> existing = gluuConfiguration.getIdpAuthn();
+            Optional<IDPAuthConf> existingConf = existing.stream()
+                    .filter(o -> o.getName() != null && o.getName().equals(name)).findFirst();
+            if (existingConf.isEmpty())
+                return; // does not exist, nothing to remove
 
-        configurationService.merge(gluuConfiguration);
+            existing.remove(existingConf.get());
+            gluuConfiguration.setIdpAuthn(existing);
+        });
     }
 
     public Optional<CouchbaseConnectionConfiguration> findByName(String name) {
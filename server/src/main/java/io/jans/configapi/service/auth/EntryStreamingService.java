@@ -0,0 +1,121 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.service.auth;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.configuration.ObjectMapperContextResolver;
+import io.jans.orm.PersistenceEntryManager;
+import io.jans.orm.model.DefaultBatchOperation;
+import io.jans.orm.model.SearchScope;
+import io.jans.orm.search.filter.Filter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.core.StreamingOutput;
+
+/**
+ * Writes search results as a JSON array, or as newline delimited JSON
+ * (NDJSON), while they are read from the persistence layer, one chunk of
+ * streamingChunkSize entries at a time. The entries are not collected, so heap
+ * use does not grow with the result size.
+ */
+@ApplicationScoped
+public class EntryStreamingService {
+
+    private static final ObjectMapper MAPPER = ObjectMapperContextResolver.createDefaultMapper();
+
+    @Inject
+    PersistenceEntryManager persistenceEntryManager;
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    public <T> StreamingOutput streamEntries(String baseDn, Class<T> entryClass, Filter filter,
+            String[] returnAttributes) {
+        return streamEntries(baseDn, entryClass, filter, returnAttributes, UnaryOperator.identity());
+    }
+
+    /**
+     * @param transformer
+     *            applied to every entry before it is written
+     */
+    public <T> StreamingOutput streamEntries(String baseDn, Class<T> entryClass, Filter filter,
+            String[] returnAttributes, UnaryOperator<T> transformer) {
+        return streamEntries(baseDn, entryClass, filter, returnAttributes, transformer, false);
+    }
+
+    /**
+     * Writes one entry per line, e.g. for exports re-imported item by item.
+     */
+    public <T> StreamingOutput streamEntriesAsNdjson(String baseDn, Class<T> entryClass, Filter filter) {
+        return streamEntries(baseDn, entryClass, filter, null, UnaryOperator.identity(), true);
+    }
+
+    private <T> StreamingOutput streamEntries(String baseDn, Class<T> entryClass, Filter filter,
+            String[] returnAttributes, UnaryOperator<T> transformer, boolean newlineDelimited) {
+        final int chunkSize = configurationFactory.getApiAppConfiguration().getStreamingChunkSize();
+        return output -> {
+            try (JsonGenerator generator = MAPPER.getFactory().createGenerator(output)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                if (newlineDelimited) {
+                    generator.setRootValueSeparator(null);
+                } else {
+                    generator.writeStartArray();
+                }
+                try {
+                    persistenceEntryManager.findEntries(baseDn, entryClass, filter, SearchScope.SUB, returnAttributes,
+                            new JsonWriterBatchOperation<>(generator, transformer, newlineDelimited), 0, 0,
+                            chunkSize);
+                } catch (UncheckedIOException ex) {
+                    throw ex.getCause();
+                }
+                if (!newlineDelimited) {
+                    generator.writeEndArray();
+                }
+            }
+        };
+    }
+
+    private static class JsonWriterBatchOperation<T> extends DefaultBatchOperation<T> {
+
+        private final JsonGenerator generator;
+        private final UnaryOperator<T> transformer;
+        private final boolean newlineDelimited;
+
+        JsonWriterBatchOperation(JsonGenerator generator, UnaryOperator<T> transformer, boolean newlineDelimited) {
+            this.generator = generator;
+            this.transformer = transformer;
+            this.newlineDelimited = newlineDelimited;
+        }
+
+        @Override
+        public boolean collectSearchResult(int size) {
+            return false;
+        }
+
+        @Override
+        public void performAction(List<T> entries) {
+            try {
+                for (T entry : entries) {
+                    generator.writeObject(transformer.apply(entry));
+                    if (newlineDelimited) {
+                        generator.writeRaw('\n');
+                    }
+                }
+                generator.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
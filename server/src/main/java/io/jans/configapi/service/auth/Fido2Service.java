@@ -8,6 +8,7 @@ package io.jans.configapi.service.auth;
 
 import io.jans.config.oxtrust.DbApplicationConfiguration;
 import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.service.metrics.TimedPersistence;
 import io.jans.orm.PersistenceEntryManager;
 import io.jans.orm.exception.BasePersistenceException;
 import org.slf4j.Logger;
@@ -21,10 +22,13 @@ import javax.inject.Inject;
 @ApplicationScoped
 public class Fido2Service {
 
+    private static final String[] REVISION_ATTRIBUTES = new String[] { "jansRevision" };
+
     @Inject
     Logger logger;
 
     @Inject
+    @TimedPersistence
     PersistenceEntryManager persistenceManager;
 
     @Inject
@@ -41,6 +45,23 @@ public class Fido2Service {
         }
     }
 
+    /**
+     * Reads the revision of the Fido2 configuration only, -1 if it cannot be
+     * read.
+     */
+    public long findRevision() {
+        try {
+            String configurationDn = configurationFactory.getBaseConfiguration()
+                    .getString("fido2_ConfigurationEntryDN");
+            DbApplicationConfiguration fido2Configuration = persistenceManager.find(configurationDn,
+                    DbApplicationConfiguration.class, REVISION_ATTRIBUTES);
+            return (fido2Configuration != null ? fido2Configuration.getRevision() : -1);
+        } catch (BasePersistenceException var3) {
+            logger.error("Failed to load Fido2 configuration revision from LDAP");
+            return -1;
+        }
+    }
+
     public void merge(String fido2ConfigJson) {
         DbApplicationConfiguration fido2Configuration = this.find();
         fido2Configuration.setDynamicConf(fido2ConfigJson);
@@ -19,10 +19,12 @@ import org.slf4j.Logger;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.ws.rs.core.EntityTag;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -40,38 +42,63 @@ public class LdapConfigurationService {
     private EncryptionService encryptionService;
 
     public List<GluuLdapConfiguration> findLdapConfigurations() {
-        return getIDPAuthConf().stream().map(IDPAuthConf::asLdapConfiguration).collect(Collectors.toList());
+        return getLdapConfigurations(configurationService.findGluuConfiguration());
     }
 
-    public void save(GluuLdapConfiguration ldapConfiguration) {
-        List<GluuLdapConfiguration> ldapConfigurations = new ArrayList<GluuLdapConfiguration>(findLdapConfigurations());
-        ldapConfigurations.add(ldapConfiguration);
-        save(ldapConfigurations);
+    /**
+     * @param preconditions
+     *            checks the tag of the configuration about to be changed
+     * @return the tag of the written configuration
+     */
+    public EntityTag save(GluuLdapConfiguration ldapConfiguration, Consumer<EntityTag> preconditions) {
+        return merge(preconditions, ldapConfigurations -> ldapConfigurations.add(ldapConfiguration));
     }
 
-    public void save(List<GluuLdapConfiguration> ldapConfigurations) {
-        GluuConfiguration configuration = configurationService.findGluuConfiguration();
-        configuration.setIdpAuthn(getIDPAuthConfs(ldapConfigurations));
-        configurationService.merge(configuration);
+    public EntityTag save(List<GluuLdapConfiguration> ldapConfigurations, Consumer<EntityTag> preconditions) {
+        return merge(preconditions, current -> {
+            current.clear();
+            current.addAll(ldapConfigurations);
+        });
     }
 
-    public void update(GluuLdapConfiguration ldapConfiguration) {
-        List<GluuLdapConfiguration> ldapConfigurations = excludeFromConfigurations(
-                new ArrayList<>(findLdapConfigurations()), ldapConfiguration);
-        ldapConfigurations.add(ldapConfiguration);
-
-        save(ldapConfigurations);
+    /**
+     * @throws NoSuchElementException
+     *             if the stored configuration has no entry with the same name
+     */
+    public EntityTag update(GluuLdapConfiguration ldapConfiguration, Consumer<EntityTag> preconditions) {
+        return merge(preconditions, ldapConfigurations -> {
+            excludeFromConfigurations(ldapConfigurations, ldapConfiguration);
+            ldapConfigurations.add(ldapConfiguration);
+        });
     }
 
-    public void remove(String name) {
-        GluuLdapConfiguration toRemove = findByName(name);
-        List<GluuLdapConfiguration> allConfiguration = new ArrayList<GluuLdapConfiguration>(findLdapConfigurations());
-        List<GluuLdapConfiguration> newConfigurations = excludeFromConfigurations(allConfiguration, toRemove);
-        save(newConfigurations);
+    /**
+     * @throws NoSuchElementException
+     *             if the stored configuration has no entry with this name
+     */
+    public EntityTag remove(String name, Consumer<EntityTag> preconditions) {
+        return merge(preconditions, ldapConfigurations -> excludeFromConfigurations(ldapConfigurations,
+                findByName(ldapConfigurations, name)));
     }
 
     public GluuLdapConfiguration findByName(String name) {
-        List<GluuLdapConfiguration> ldapConfigurations = findLdapConfigurations();
+        return findByName(findLdapConfigurations(), name);
+    }
+
+    /**
+     * Applies the update to the LDAP configurations of the freshly loaded
+     * entry, so that changes written meanwhile by another node are kept.
+     */
+    private EntityTag merge(Consumer<EntityTag> preconditions, Consumer<List<GluuLdapConfiguration>> update) {
+        return configurationService.mergeGluuConfiguration(preconditions, configuration -> {
+            List<GluuLdapConfiguration> existing = getLdapConfigurations(configuration);
+            List<GluuLdapConfiguration> ldapConfigurations = new ArrayList<>(existing);
+            update.accept(ldapConfigurations);
+            configuration.setIdpAuthn(getIDPAuthConfs(existing, ldapConfigurations));
+        });
+    }
+
+    private GluuLdapConfiguration findByName(List<GluuLdapConfiguration> ldapConfigurations, String name) {
         log.debug(" findByName name = name " + name + " ldapConfigurations = " + ldapConfigurations);
 
         Optional<GluuLdapConfiguration> matchingLdapConfiguration = ldapConfigurations.stream()
@@ -79,19 +106,20 @@ public class LdapConfigurationService {
         return matchingLdapConfiguration.get();
     }
 
-    private List<IDPAuthConf> getIDPAuthConf() {
-        List<IDPAuthConf> idpConfList = configurationService.findGluuConfiguration().getIdpAuthn();
+    private List<GluuLdapConfiguration> getLdapConfigurations(GluuConfiguration configuration) {
+        List<IDPAuthConf> idpConfList = configuration.getIdpAuthn();
         if (idpConfList == null) {
             return Lists.newArrayList();
         }
         return idpConfList.stream().filter(c -> c.getType().equalsIgnoreCase(AUTH))
-                .collect(Collectors.toCollection(ArrayList::new));
+                .map(IDPAuthConf::asLdapConfiguration).collect(Collectors.toCollection(ArrayList::new));
     }
 
-    private List<IDPAuthConf> getIDPAuthConfs(List<GluuLdapConfiguration> ldapConfigurations) {
+    private List<IDPAuthConf> getIDPAuthConfs(List<GluuLdapConfiguration> existing,
+            List<GluuLdapConfiguration> ldapConfigurations) {
         List<IDPAuthConf> idpConf = new ArrayList<IDPAuthConf>();
         for (GluuLdapConfiguration ldapConfig : ldapConfigurations) {
-            if (shouldEncryptPassword(ldapConfig)) {
+            if (shouldEncryptPassword(existing, ldapConfig)) {
                 try {
                     ldapConfig.setBindPassword(encryptionService.encrypt(ldapConfig.getBindPassword()));
                 } catch (StringEncrypter.EncryptionException e) {
@@ -128,8 +156,13 @@ public class LdapConfigurationService {
     }
 
     public boolean shouldEncryptPassword(GluuLdapConfiguration ldapConfiguration) {
+        return shouldEncryptPassword(findLdapConfigurations(), ldapConfiguration);
+    }
+
+    private boolean shouldEncryptPassword(List<GluuLdapConfiguration> existing,
+            GluuLdapConfiguration ldapConfiguration) {
         try {
-            GluuLdapConfiguration oldConfiguration = findByName(ldapConfiguration.getConfigId());
+            GluuLdapConfiguration oldConfiguration = findByName(existing, ldapConfiguration.getConfigId());
             String encryptedOldPassword = oldConfiguration.getBindPassword();
             return !StringUtils.equals(encryptedOldPassword, ldapConfiguration.getBindPassword());
         } catch (NoSuchElementException ex) {
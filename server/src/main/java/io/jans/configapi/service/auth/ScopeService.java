@@ -10,15 +10,20 @@ import io.jans.as.common.service.OrganizationService;
 import io.jans.as.common.util.AttributeConstants;
 import io.jans.as.model.config.StaticConfiguration;
 import io.jans.as.persistence.model.Scope;
+import io.jans.configapi.service.metrics.TimedPersistence;
 import io.jans.orm.PersistenceEntryManager;
 import io.jans.orm.search.filter.Filter;
 import io.jans.util.StringHelper;
+import io.jans.configapi.rest.model.PagedResponse;
+import io.jans.configapi.util.EntryLookup;
+import io.jans.configapi.util.PageCursor;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -34,6 +39,7 @@ public class ScopeService {
     Logger logger;
 
     @Inject
+    @TimedPersistence
     PersistenceEntryManager persistenceEntryManager;
 
     @Inject
@@ -71,8 +77,12 @@ public class ScopeService {
     }
 
     public Scope getScopeByInum(String inum) {
+        return getScopeByInum(inum, null);
+    }
+
+    public Scope getScopeByInum(String inum, String[] returnAttributes) {
         try {
-            return persistenceEntryManager.find(Scope.class, getDnForScope(inum));
+            return persistenceEntryManager.find(Scope.class, getDnForScope(inum), returnAttributes);
         } catch (Exception e) {
             return null;
         }
@@ -101,17 +111,14 @@ public class ScopeService {
     }
 
     public List<Scope> searchScopes(String pattern, int sizeLimit, String scopeType) {
-        String[] targetArray = new String[] { pattern };
-        Filter displayNameFilter = Filter.createSubstringFilter(AttributeConstants.displayName, null, targetArray,
-                null);
-        Filter descriptionFilter = Filter.createSubstringFilter(AttributeConstants.description, null, targetArray,
-                null);
-        Filter searchFilter = Filter.createORFilter(displayNameFilter, descriptionFilter);
-        if (StringHelper.isNotEmpty(scopeType)) {
-            searchFilter = Filter.createANDFilter(Filter.createEqualityFilter("jansScopeTyp", scopeType), searchFilter);
-        }
+        return searchScopes(pattern, sizeLimit, scopeType, null);
+    }
+
+    public List<Scope> searchScopes(String pattern, int sizeLimit, String scopeType, String[] returnAttributes) {
+        Filter searchFilter = createSearchFilter(pattern, scopeType);
         try {
-            return persistenceEntryManager.findEntries(getDnForScope(null), Scope.class, searchFilter, sizeLimit);
+            return persistenceEntryManager.findEntries(getDnForScope(null), Scope.class, searchFilter,
+                    returnAttributes, sizeLimit);
         } catch (Exception e) {
             logger.error("No scopes found by pattern: " + pattern, e);
             return new ArrayList<>();
@@ -123,10 +130,58 @@ public class ScopeService {
     }
 
     public List<Scope> getAllScopesList(int size, String scopeType) {
+        return getAllScopesList(size, scopeType, null);
+    }
+
+    public List<Scope> getAllScopesList(int size, String scopeType, String[] returnAttributes) {
         Filter searchFilter = null;
         if (StringHelper.isNotEmpty(scopeType)) {
             searchFilter = Filter.createEqualityFilter("jansScopeTyp", scopeType);
         }
-        return persistenceEntryManager.findEntries(getDnForScope(null), Scope.class, searchFilter, size);
+        return persistenceEntryManager.findEntries(getDnForScope(null), Scope.class, searchFilter, returnAttributes,
+                size);
+    }
+
+    public List<Scope> findScopesByInums(Collection<String> inums) {
+        return EntryLookup.findEntries(persistenceEntryManager, getDnForScope(null), Scope.class,
+                AttributeConstants.inum, inums, null);
+    }
+
+    public List<Scope> findScopesByIds(Collection<String> ids) {
+        return EntryLookup.findEntries(persistenceEntryManager, getDnForScope(null), Scope.class,
+                AttributeConstants.jsId, ids, new String[] { AttributeConstants.inum, AttributeConstants.jsId });
+    }
+
+    public PagedResponse<Scope> getScopesPage(String pattern, String scopeType, String[] returnAttributes,
+            String afterInum, int count) {
+        return PageCursor.findPage(persistenceEntryManager, getDnForScope(null), Scope.class,
+                getSearchFilter(pattern, scopeType), returnAttributes, AttributeConstants.inum, Scope::getInum,
+                afterInum, count);
+    }
+
+    /**
+     * Returns the filter matching the pattern and type, either of which may be
+     * empty, or null to match every scope.
+     */
+    public Filter getSearchFilter(String pattern, String scopeType) {
+        if (StringHelper.isNotEmpty(pattern)) {
+            return createSearchFilter(pattern, scopeType);
+        } else if (StringHelper.isNotEmpty(scopeType)) {
+            return Filter.createEqualityFilter("jansScopeTyp", scopeType);
+        }
+        return null;
+    }
+
+    private Filter createSearchFilter(String pattern, String scopeType) {
+        String[] targetArray = new String[] { pattern };
+        Filter displayNameFilter = Filter.createSubstringFilter(AttributeConstants.displayName, null, targetArray,
+                null);
+        Filter descriptionFilter = Filter.createSubstringFilter(AttributeConstants.description, null, targetArray,
+                null);
+        Filter searchFilter = Filter.createORFilter(displayNameFilter, descriptionFilter);
+        if (StringHelper.isNotEmpty(scopeType)) {
+            searchFilter = Filter.createANDFilter(Filter.createEqualityFilter("jansScopeTyp", scopeType), searchFilter);
+        }
+        return searchFilter;
     }
 }
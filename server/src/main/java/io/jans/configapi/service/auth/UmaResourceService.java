@@ -9,10 +9,13 @@ package io.jans.configapi.service.auth;
 import io.jans.as.common.util.AttributeConstants;
 import io.jans.as.model.config.StaticConfiguration;
 import io.jans.as.model.uma.persistence.UmaResource;
+import io.jans.configapi.service.metrics.TimedPersistence;
 import io.jans.orm.PersistenceEntryManager;
 import io.jans.orm.model.base.SimpleBranch;
 import io.jans.orm.search.filter.Filter;
 import io.jans.util.StringHelper;
+import io.jans.configapi.rest.model.PagedResponse;
+import io.jans.configapi.util.PageCursor;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -27,6 +30,7 @@ import org.apache.commons.lang.StringUtils;
 public class UmaResourceService {
 
     @Inject
+    @TimedPersistence
     PersistenceEntryManager persistenceEntryManager;
 
     @Inject
@@ -41,12 +45,27 @@ public class UmaResourceService {
     }
 
     public List<UmaResource> findResources(String pattern, int sizeLimit) {
+        return findResources(pattern, sizeLimit, null);
+    }
+
+    public List<UmaResource> findResources(String pattern, int sizeLimit, String[] returnAttributes) {
+        return persistenceEntryManager.findEntries(getDnForResource(null), UmaResource.class,
+                createSearchFilter(pattern), returnAttributes, sizeLimit);
+    }
+
+    public PagedResponse<UmaResource> getResourcesPage(String pattern, String[] returnAttributes, String afterId,
+            int count) {
+        Filter searchFilter = (StringHelper.isNotEmpty(pattern) ? createSearchFilter(pattern) : null);
+        return PageCursor.findPage(persistenceEntryManager, getDnForResource(null), UmaResource.class, searchFilter,
+                returnAttributes, "jansId", UmaResource::getId, afterId, count);
+    }
+
+    private Filter createSearchFilter(String pattern) {
         String[] targetArray = new String[] { pattern };
         Filter jsIdFilter = Filter.createSubstringFilter("jansId", null, targetArray, null);
         Filter displayNameFilter = Filter.createSubstringFilter(AttributeConstants.displayName, null, targetArray,
                 null);
-        Filter searchFilter = Filter.createORFilter(jsIdFilter, displayNameFilter);
-        return persistenceEntryManager.findEntries(getDnForResource(null), UmaResource.class, searchFilter, sizeLimit);
+        return Filter.createORFilter(jsIdFilter, displayNameFilter);
     }
 
     public List<UmaResource> findResourcesByName(String name, int sizeLimit) {
@@ -59,7 +78,12 @@ public class UmaResourceService {
     }
 
     public List<UmaResource> getAllResources(int sizeLimit) {
-        return persistenceEntryManager.findEntries(getDnForResource(null), UmaResource.class, null, sizeLimit);
+        return getAllResources(sizeLimit, null);
+    }
+
+    public List<UmaResource> getAllResources(int sizeLimit, String[] returnAttributes) {
+        return persistenceEntryManager.findEntries(getDnForResource(null), UmaResource.class, null, returnAttributes,
+                sizeLimit);
     }
 
     public void addResource(UmaResource resource) {
@@ -79,9 +103,13 @@ public class UmaResourceService {
     }
 
     public UmaResource getResourceById(String id) {
+        return getResourceById(id, null);
+    }
+
+    public UmaResource getResourceById(String id, String[] returnAttributes) {
         prepareBranch();
         final String dn = getDnForResource(id);
-        return persistenceEntryManager.find(UmaResource.class, dn);
+        return persistenceEntryManager.find(UmaResource.class, dn, returnAttributes);
     }
 
     private void prepareBranch() {
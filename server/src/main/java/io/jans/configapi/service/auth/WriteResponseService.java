@@ -0,0 +1,100 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.service.auth;
+
+import io.jans.configapi.configuration.ConfigurationFactory;
+import io.jans.configapi.util.ApiConstants;
+import io.jans.util.StringHelper;
+
+import java.net.URI;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Response;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Responses of the write endpoints. The entity handed to the persistence layer
+ * is returned as written instead of being read back, or no entity at all when
+ * the request carries <code>Prefer: return=minimal</code>.
+ * <p>
+ * With readAfterWriteEnabled, the default, the entry is still read back on the
+ * backends that may rewrite the written values (LDAP normalizes values and
+ * maintains operational attributes); the other backends store the values as
+ * given and are never read back.
+ */
+@ApplicationScoped
+public class WriteResponseService {
+
+    // Unknown types are treated as rewriting
+    private static final Set<String> STORE_AS_WRITTEN_PERSISTENCE_TYPES = Set.of("couchbase", "sql", "spanner");
+
+    @Inject
+    ConfigurationFactory configurationFactory;
+
+    /**
+     * @param prefer
+     *            value of the Prefer request header
+     */
+    public boolean isReturnMinimal(String prefer) {
+        if (StringHelper.isEmpty(prefer)) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            // Drop the preference parameters, then the optional whitespace and quotes
+            String value = StringUtils.deleteWhitespace(preference.split(";", 2)[0]).replace("\"", "");
+            if (ApiConstants.RETURN_MINIMAL.equalsIgnoreCase(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Response of a minimal create, pointing to the created resource.
+     */
+    public Response getMinimalCreatedResponse(URI location) {
+        return Response.created(location).header(ApiConstants.PREFERENCE_APPLIED, ApiConstants.RETURN_MINIMAL)
+                .build();
+    }
+
+    /**
+     * Response of a minimal update: 204 rather than an empty 200.
+     */
+    public Response getMinimalResponse() {
+        return getMinimalResponse(null);
+    }
+
+    /**
+     * @param entityTag
+     *            tag of the updated resource, or null
+     */
+    public Response getMinimalResponse(EntityTag entityTag) {
+        return Response.noContent().tag(entityTag)
+                .header(ApiConstants.PREFERENCE_APPLIED, ApiConstants.RETURN_MINIMAL).build();
+    }
+
+    /**
+     * Returns the written entity, or the entry read back by the reader when
+     * readAfterWriteEnabled is set and the backend may have rewritten it.
+     */
+    public <T> T getWrittenEntity(T entity, Supplier<T> reader) {
+        if (configurationFactory.getApiAppConfiguration().isReadAfterWriteEnabled() && isRewritingBackend()) {
+            return reader.get();
+        }
+        return entity;
+    }
+
+    private boolean isRewritingBackend() {
+        String persistenceType = configurationFactory.getBaseConfiguration().getString("persistence.type");
+        return persistenceType == null
+                || !STORE_AS_WRITTEN_PERSISTENCE_TYPES.contains(persistenceType.toLowerCase());
+    }
+}
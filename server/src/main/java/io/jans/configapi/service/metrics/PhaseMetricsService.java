@@ -0,0 +1,90 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.service.metrics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.Timer;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+
+/**
+ * Timers of the stages a request goes through (authorization steps,
+ * persistence calls, response serialization and compression), published as
+ * <code>api_phase_duration</code> tagged by phase and operation. Their
+ * snapshots expose p50, p75, p95, p98, p99 and p999.
+ */
+@ApplicationScoped
+public class PhaseMetricsService {
+
+    public static final String AUTH_RESOURCE_SCOPES = "auth_resource_scopes";
+    public static final String AUTH_JWT_PARSE = "auth_jwt_parse";
+    public static final String AUTH_JWKS = "auth_jwks";
+    public static final String AUTH_SIGNATURE = "auth_signature";
+    public static final String AUTH_INTROSPECTION = "auth_introspection";
+    public static final String PERSISTENCE = "persistence";
+    public static final String SERIALIZATION = "serialization";
+    public static final String COMPRESSION = "compression";
+
+    private static final String PHASE_TIMER = "api_phase_duration";
+    private static final String NO_OPERATION = "all";
+
+    @Inject
+    @RegistryType(type = MetricRegistry.Type.APPLICATION)
+    MetricRegistry metricRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public Timer.Context time(String phase) {
+        return getTimer(phase, NO_OPERATION).time();
+    }
+
+    public Timer.Context time(String phase, String operation) {
+        return getTimer(phase, operation).time();
+    }
+
+    /**
+     * Records a duration measured by the caller, e.g. summed over several
+     * calls.
+     */
+    public void update(String phase, long durationNanos) {
+        getTimer(phase, NO_OPERATION).update(Duration.ofNanos(durationNanos));
+    }
+
+    /**
+     * Returns the timer of the phase and operation; callers must keep the set
+     * of operations bounded (e.g. one per method).
+     */
+    public Timer getTimer(String phase, String operation) {
+        return timers.computeIfAbsent(phase + ":" + operation, key -> {
+            Metadata metadata = Metadata.builder().withName(PHASE_TIMER).withType(MetricType.TIMER)
+                    .withUnit(MetricUnits.NANOSECONDS).build();
+            return metricRegistry.timer(metadata, new Tag("phase", phase), new Tag("operation", operation));
+        });
+    }
+
+    /**
+     * Returns the timer of the phase and operation made on behalf of a
+     * service, e.g. a persistence call of ClientService.
+     */
+    public Timer getTimer(String phase, String service, String operation) {
+        return timers.computeIfAbsent(phase + ":" + service + ":" + operation, key -> {
+            Metadata metadata = Metadata.builder().withName(PHASE_TIMER).withType(MetricType.TIMER)
+                    .withUnit(MetricUnits.NANOSECONDS).build();
+            return metricRegistry.timer(metadata, new Tag("phase", phase), new Tag("service", service),
+                    new Tag("operation", operation));
+        });
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.service.metrics;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Path;
+
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.Timer;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+
+/**
+ * Request metrics keyed by route template (HTTP method and the @Path of the
+ * matched resource method) rather than by concrete request path, so the
+ * number of metrics is bounded by the number of resource methods. Handles are
+ * resolved once per resource method.
+ */
+@ApplicationScoped
+public class RouteMetricsService {
+
+    public static final String ROUTE_ATTRIBUTE = RouteMetricsService.class.getName() + ".route";
+    public static final String TIMER_CONTEXT_ATTRIBUTE = RouteMetricsService.class.getName() + ".timerContext";
+
+    private static final String REQUEST_TIMER = "api_request_duration";
+    private static final String UNMATCHED_ROUTE = "unmatched";
+
+    @Inject
+    @RegistryType(type = MetricRegistry.Type.APPLICATION)
+    MetricRegistry metricRegistry;
+
+    private final Map<Method, Route> routes = new ConcurrentHashMap<>();
+    private Route unmatchedRoute;
+
+    @PostConstruct
+    public void init() {
+        this.unmatchedRoute = createRoute(UNMATCHED_ROUTE, UNMATCHED_ROUTE);
+    }
+
+    public Route getRoute(Class<?> resourceClass, Method resourceMethod) {
+        if (resourceClass == null || resourceMethod == null) {
+            return unmatchedRoute;
+        }
+        return routes.computeIfAbsent(resourceMethod,
+                method -> createRoute(getHttpMethod(method), getTemplate(resourceClass, method)));
+    }
+
+    public Route getUnmatchedRoute() {
+        return unmatchedRoute;
+    }
+
+    private Route createRoute(String httpMethod, String template) {
+        Metadata metadata = Metadata.builder().withName(REQUEST_TIMER).withType(MetricType.TIMER)
+                .withUnit(MetricUnits.NANOSECONDS).build();
+        Timer timer = metricRegistry.timer(metadata, new Tag("method", httpMethod), new Tag("route", template));
+        return new Route(httpMethod, template, timer);
+    }
+
+    private static String getHttpMethod(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            HttpMethod httpMethod = annotation.annotationType().getAnnotation(HttpMethod.class);
+            if (httpMethod != null) {
+                return httpMethod.value();
+            }
+        }
+        return UNMATCHED_ROUTE;
+    }
+
+    private static String getTemplate(Class<?> resourceClass, Method method) {
+        StringBuilder template = new StringBuilder();
+        appendPath(template, resourceClass.getAnnotation(Path.class));
+        appendPath(template, method.getAnnotation(Path.class));
+        return (template.length() > 0 ? template.toString() : "/");
+    }
+
+    private static void appendPath(StringBuilder template, Path path) {
+        if (path == null || path.value().isEmpty()) {
+            return;
+        }
+        String value = path.value();
+        if (!value.startsWith("/")) {
+            template.append('/');
+        }
+        template.append(value.endsWith("/") ? value.substring(0, value.length() - 1) : value);
+    }
+
+    public static class Route {
+
+        private final String httpMethod;
+        private final String template;
+        private final Timer timer;
+
+        Route(String httpMethod, String template, Timer timer) {
+            this.httpMethod = httpMethod;
+            this.template = template;
+            this.timer = timer;
+        }
+
+        public String getHttpMethod() {
+            return httpMethod;
+        }
+
+        public String getTemplate() {
+            return template;
+        }
+
+        public Timer getTimer() {
+            return timer;
+        }
+    }
+}
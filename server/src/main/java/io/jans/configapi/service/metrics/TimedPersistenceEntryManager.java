@@ -0,0 +1,65 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.service.metrics;
+
+import io.jans.orm.PersistenceEntryManager;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.eclipse.microprofile.metrics.Timer;
+
+/**
+ * Times every call made to the wrapped entry manager, tagged by the calling
+ * service and the method name. Only the calls reaching persistence are
+ * measured: cache hits in the services are not, and a service method calling
+ * another one is not counted twice.
+ * <p>
+ * The wrapper only implements {@link PersistenceEntryManager}; it must not be
+ * cast to a concrete entry manager class.
+ */
+public class TimedPersistenceEntryManager implements InvocationHandler {
+
+    private final PersistenceEntryManager persistenceEntryManager;
+    private final PhaseMetricsService phaseMetricsService;
+    private final String service;
+
+    private TimedPersistenceEntryManager(PersistenceEntryManager persistenceEntryManager,
+            PhaseMetricsService phaseMetricsService, String service) {
+        this.persistenceEntryManager = persistenceEntryManager;
+        this.phaseMetricsService = phaseMetricsService;
+        this.service = service;
+    }
+
+    public static PersistenceEntryManager wrap(PersistenceEntryManager persistenceEntryManager,
+            PhaseMetricsService phaseMetricsService, String service) {
+        return (PersistenceEntryManager) Proxy.newProxyInstance(PersistenceEntryManager.class.getClassLoader(),
+                new Class<?>[] { PersistenceEntryManager.class },
+                new TimedPersistenceEntryManager(persistenceEntryManager, phaseMetricsService, service));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return invokeTarget(method, args);
+        }
+        Timer timer = phaseMetricsService.getTimer(PhaseMetricsService.PERSISTENCE, service, method.getName());
+        try (Timer.Context timerContext = timer.time()) {
+            return invokeTarget(method, args);
+        }
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(persistenceEntryManager, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
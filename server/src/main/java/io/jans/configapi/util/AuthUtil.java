@@ -8,24 +8,22 @@ import io.jans.as.model.uma.wrapper.Token;
 import io.jans.as.model.util.Util;
 import io.jans.as.persistence.model.Scope;
 import io.jans.configapi.security.api.ApiProtectionCache;
+import io.jans.configapi.security.api.ProtectedApiScopeRegistry;
+import io.jans.configapi.security.api.ResourceScopeIndex;
 import io.jans.configapi.security.client.AuthClientFactory;
 import io.jans.configapi.configuration.ConfigurationFactory;
-import io.jans.configapi.filters.ProtectedApi;
 import io.jans.configapi.service.auth.ConfigurationService;
 import io.jans.configapi.service.auth.ClientService;
 import io.jans.configapi.service.auth.ScopeService;
 import io.jans.util.security.StringEncrypter.EncryptionException;
 import org.slf4j.Logger;
 
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.ws.rs.WebApplicationException;
@@ -53,20 +51,35 @@ public class AuthUtil {
     @Inject
     EncryptionService encryptionService;
 
+    @Inject
+    AuthClientFactory authClientFactory;
+
+    @Inject
+    ResourceScopeIndex resourceScopeIndex;
+
+    @Inject
+    ApiProtectionCache apiProtectionCache;
+
+    @Inject
+    ProtectedApiScopeRegistry protectedApiScopeRegistry;
+
     public String getClientId() {
         return this.configurationFactory.getApiClientId();
     }
 
     public String getTokenUrl() {
-        return this.configurationService.find().getTokenEndpoint();
+        return this.configurationService.getTokenEndpoint();
     }
 
     public String getTokenRevocationEndpoint() {
-        return this.configurationService.find().getTokenRevocationEndpoint();
+        return this.configurationService.getTokenRevocationEndpoint();
     }
 
+    /**
+     * Returns the cached client, which must not be modified.
+     */
     public Client getClient(String clientId) {
-        return clientService.getClientByInum(clientId);
+        return clientService.getCachedClient(clientId);
     }
 
     public String getClientPassword(String clientId) {
@@ -104,45 +117,18 @@ public class AuthUtil {
     public List<Scope> getResourceScopeList(String method, String path) {
         log.trace(" AuthUtil::getResourceScopeList() method = " + method + " , path = " + path + "\n");
 
-        // Verify in cache
-        Map<String, List<Scope>> resources = ApiProtectionCache.getAllResources();
-
-        // Filter paths based on resource name
-        Set<String> keys = resources.keySet();
-        List<String> filteredPaths = keys.stream().filter(k -> k.contains(path)).collect(Collectors.toList());
-
-        if (filteredPaths == null || filteredPaths.isEmpty()) {
+        if (!resourceScopeIndex.isProtectedPath(path)) {
             throw new WebApplicationException("No matching resource found .",
                     Response.status(Response.Status.UNAUTHORIZED).build());
         }
 
-        List<Scope> scopeList = null;
-        for (String key : filteredPaths) {
-            String[] result = key.split(":::");
-            if (result != null && result.length > 1) {
-                String httpmethod = result[0];
-                String pathUrl = result[1];
-                log.trace(" AuthUtil::getResourceScopeList() - httpmethod = " + httpmethod + " , pathUrl = " + pathUrl);
-
-                if (pathUrl != null && pathUrl.contains(path)) {
-                    // Matching url
-                    log.trace(" AuthUtil::getResourceScopeList() - Matching url, path = " + path + " , pathUrl = "
-                            + pathUrl);
-
-                    // Verify Method
-                    if (httpmethod.contains(method)) {
-                        scopeList = ApiProtectionCache.getResourceScopes(key);
-                        log.trace(" AuthUtil::getResourceScopeList() - Matching scopeList =" + scopeList);
-                        break;
-                    }
-                }
-            }
-        }
+        List<Scope> scopeList = resourceScopeIndex.getScopes(method, path);
+        log.trace(" AuthUtil::getResourceScopeList() - Matching scopeList =" + scopeList);
         return scopeList;
     }
 
     public List<String> getAllResourceScopes() {
-        Map<String, Scope> scopeMap = ApiProtectionCache.getAllScopes();
+        Map<String, Scope> scopeMap = apiProtectionCache.getAllScopes();
         log.trace("getAllResourceScopes() - scopeMap = " + scopeMap);
 
         List<String> scopeStrList = null;
@@ -155,7 +141,7 @@ public class AuthUtil {
     }
 
     public List<String> getRequestedScopes(String path) {
-        List<Scope> scopeList = ApiProtectionCache.getResourceScopes(path);
+        List<Scope> scopeList = apiProtectionCache.getResourceScopes(path);
         log.trace("getRequestedScopes() - scopeList = " + scopeList);
 
         List<String> scopeStrList = new ArrayList();
@@ -183,31 +169,14 @@ public class AuthUtil {
     }
 
     public List<String> getRequestedScopes(ResourceInfo resourceInfo) {
-
-        Class<?> resourceClass = resourceInfo.getResourceClass();
-        ProtectedApi typeAnnotation = resourceClass.getAnnotation(ProtectedApi.class);
-        List<String> scopes = new ArrayList<String>();
-        if (typeAnnotation == null) {
-            addMethodScopes(resourceInfo, scopes);
-        } else {
-            scopes.addAll(Stream.of(typeAnnotation.scopes()).collect(Collectors.toList()));
-            addMethodScopes(resourceInfo, scopes);
-        }
-        return scopes;
+        return protectedApiScopeRegistry.getScopes(resourceInfo);
     }
 
     public boolean validateScope(List<String> authScopes, List<String> resourceScopes) {
-        Set<String> authScopeSet = new HashSet<String>(authScopes);
-        Set<String> resourceScopeSet = new HashSet<String>(resourceScopes);
-        return authScopeSet.containsAll(resourceScopeSet);
-    }
-
-    private void addMethodScopes(ResourceInfo resourceInfo, List<String> scopes) {
-        Method resourceMethod = resourceInfo.getResourceMethod();
-        ProtectedApi methodAnnotation = resourceMethod.getAnnotation(ProtectedApi.class);
-        if (methodAnnotation != null) {
-            scopes.addAll(Stream.of(methodAnnotation.scopes()).collect(Collectors.toList()));
+        if (resourceScopes == null || resourceScopes.isEmpty()) {
+            return true;
         }
+        return authScopes != null && new HashSet<String>(authScopes).containsAll(resourceScopes);
     }
 
     public Token requestAccessToken(final String tokenUrl, final String clientId, final List<String> scopes)
@@ -229,7 +198,7 @@ public class AuthUtil {
         }
         log.trace("\n\n\n RequestAccessToken() - scope = " + scope);
 
-        TokenResponse tokenResponse = AuthClientFactory.requestAccessToken(tokenUrl, clientId, clientSecret, scope);
+        TokenResponse tokenResponse = authClientFactory.requestAccessToken(tokenUrl, clientId, clientSecret, scope);
         if (tokenResponse != null) {
             log.debug(" tokenScope: {} = ", tokenResponse.getScope());
             log.trace("RequestAccessToken() - tokenResponse.getAccessToken() = " + tokenResponse.getAccessToken());
@@ -269,11 +238,7 @@ public class AuthUtil {
         List<String> scopes = new ArrayList<String>();
 
         // Verify in cache
-        Map<String, Scope> scopeMap = ApiProtectionCache.getAllScopes();
-        Set<String> keys = scopeMap.keySet();
-
-        for (String id : keys) {
-            Scope scope = ApiProtectionCache.getScope(id);
+        for (Scope scope : apiProtectionCache.getAllScopes().values()) {
             scopes.add(scope.getInum());
         }
         return scopes;
@@ -303,9 +268,7 @@ public class AuthUtil {
     }
 
     public boolean isValidIssuer(String issuer) throws Exception {
-        log.info("\n\n AuthUtil:::isValidIssuer() - issuer = " + issuer
-                + " , this.configurationFactory.getApiApprovedIssuer().contains(issuer) = "
-                + this.configurationFactory.getApiApprovedIssuer().contains(issuer));
+        log.debug("AuthUtil:::isValidIssuer() - issuer = {}", issuer);
         return this.configurationFactory.getApiApprovedIssuer().contains(issuer);
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.util;
+
+import io.jans.util.StringHelper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Negotiation and encoding of compressed response bodies.
+ */
+public class ContentEncoding {
+
+    public static final String GZIP = "gzip";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ContentEncoding() {
+    }
+
+    /**
+     * Tells whether the Accept-Encoding request header allows gzip, either by
+     * name or through <code>*</code>, with a non-zero quality.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (StringHelper.isEmpty(acceptEncoding)) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (GZIP.equalsIgnoreCase(name) || "*".equals(name)) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gzip stream whose flush pushes the data written so far, so that streamed
+     * responses keep flowing.
+     *
+     * @param level
+     *            deflate level, 1 (fastest) to 9 (smallest)
+     */
+    public static GZIPOutputStream gzip(OutputStream output, int level) throws IOException {
+        return new GZIPOutputStream(output, BUFFER_SIZE, true) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    public static byte[] gzip(byte[] bytes, int level) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzipOutput = gzip(output, level)) {
+            gzipOutput.write(bytes);
+        }
+        return output.toByteArray();
+    }
+}
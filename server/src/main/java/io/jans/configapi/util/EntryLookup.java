@@ -0,0 +1,42 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.util;
+
+import io.jans.orm.PersistenceEntryManager;
+import io.jans.orm.search.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Looks up many entries by a key attribute (inum, ...) with one OR search per
+ * chunk of keys, instead of one read per entry.
+ */
+public class EntryLookup {
+
+    private static final int CHUNK_SIZE = 100;
+
+    private EntryLookup() {
+    }
+
+    public static <T> List<T> findEntries(PersistenceEntryManager persistenceEntryManager, String baseDn,
+            Class<T> entryClass, String attribute, Collection<String> values, String[] returnAttributes) {
+        List<T> entries = new ArrayList<>();
+        List<String> valueList = new ArrayList<>(values);
+        for (int from = 0; from < valueList.size(); from += CHUNK_SIZE) {
+            List<String> chunk = valueList.subList(from, Math.min(from + CHUNK_SIZE, valueList.size()));
+            Filter[] filters = new Filter[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                filters[i] = Filter.createEqualityFilter(attribute, chunk.get(i));
+            }
+            entries.addAll(persistenceEntryManager.findEntries(baseDn, entryClass, Filter.createORFilter(filters),
+                    returnAttributes));
+        }
+        return entries;
+    }
+}
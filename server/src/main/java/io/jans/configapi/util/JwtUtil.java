@@ -14,12 +14,17 @@ import io.jans.as.model.jwt.JwtHeaderName;
 import io.jans.as.model.jws.AbstractJwsSigner;
 import io.jans.as.model.jws.ECDSASigner;
 import io.jans.as.model.jws.RSASigner;
-import io.jans.configapi.security.client.AuthClientFactory;
+import io.jans.configapi.security.cache.JwksCache;
+import io.jans.configapi.security.cache.JwsSignerCache;
+import io.jans.configapi.security.cache.OpenIdConfigurationCache;
+import io.jans.configapi.security.service.VerifiedToken;
 import io.jans.configapi.service.auth.ConfigurationService;
+import io.jans.configapi.service.metrics.PhaseMetricsService;
 import io.jans.as.model.crypto.PublicKey;
 import io.jans.as.model.crypto.signature.ECDSAPublicKey;
 import io.jans.as.model.crypto.signature.RSAPublicKey;
 import io.jans.util.StringHelper;
+import org.eclipse.microprofile.metrics.Timer;
 import org.slf4j.Logger;
 import org.json.JSONObject;
 
@@ -28,12 +33,16 @@ import javax.inject.Inject;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
-import java.util.Date;
 import java.util.List;
 
 @ApplicationScoped
 public class JwtUtil {
 
+    // Base64url encoding of '{"'. Headers serialized without leading whitespace
+    // start with it, so it only rules out tokens cheaply: opaque tokens may
+    // begin with the same characters, and Jwt.parse remains the actual check
+    private static final String JWT_HEADER_PREFIX = "eyJ";
+
     @Inject
     Logger log;
 
@@ -43,108 +52,126 @@ public class JwtUtil {
     @Inject
     AuthUtil authUtil;
 
-    public boolean isJwt(String token) throws Exception {
-        log.trace("\n\n JwtUtil::isJwt()  token = " + token);
-        boolean isJwt = false;
-        try {
-            this.parse(token);
-            isJwt = true;
-        } catch (Exception ex) {
-            log.error("Not jwt token " + token);
+    @Inject
+    JwksCache jwksCache;
+
+    @Inject
+    OpenIdConfigurationCache openIdConfigurationCache;
+
+    @Inject
+    JwsSignerCache jwsSignerCache;
+
+    @Inject
+    PhaseMetricsService phaseMetricsService;
+
+    /**
+     * Structural check only: a JWS compact serialization has three dot
+     * separated segments and its first segment starts like a base64url
+     * encoded JSON object. A token passing it can still fail to parse.
+     */
+    public boolean isJwt(String token) {
+        if (StringHelper.isEmpty(token) || !token.startsWith(JWT_HEADER_PREFIX)) {
+            return false;
         }
-        return isJwt;
+        int firstDot = token.indexOf('.');
+        int secondDot = (firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1));
+        return secondDot > firstDot + 1 && token.indexOf('.', secondDot + 1) < 0;
     }
 
     public Jwt parse(String encodedJwt) throws InvalidJwtException {
-        log.trace("\n\n JwtUtil::parse()  encodedJwt = " + encodedJwt);
+        log.trace("JwtUtil::parse() encodedJwt = {}", encodedJwt);
         if (StringHelper.isNotEmpty(encodedJwt)) {
             return Jwt.parse(encodedJwt);
         }
         return null;
     }
 
-    public void validateToken(String token, List<String> resourceScopes) throws InvalidJwtException, Exception {
-        // 1. Parse Jwt token
-        // 2. Validate Token
-        // 3. Validate Issuer
-        // 4. Retrieve Auth Server JSON Web Keys - jwks_uri"
+    public VerifiedToken validateToken(String token, List<String> resourceScopes)
+            throws InvalidJwtException, Exception {
+        return validateToken(this.parse(token), resourceScopes);
+    }
+
+    /**
+     * Validates an already parsed token and returns the verified claims. The
+     * claims are read once and every check runs against them.
+     */
+    public VerifiedToken validateToken(Jwt jwt, List<String> resourceScopes) throws InvalidJwtException, Exception {
+        // 1. Validate Token
+        // 2. Validate Issuer
+        // 3. Retrieve Auth Server JSON Web Keys - jwks_uri"
         // :"https://jenkins-config-api.gluu.org/jans-auth/restv1/jwks",
-        // 5. Verify the signature used to sign the access token
-        // 6. Verify the scopes
+        // 4. Verify the signature used to sign the access token
+        // 5. Verify the scopes
 
-        try {
-            // Parse Token
-            Jwt jwt = this.parse(token);
+        if (jwt == null) {
+            throw new InvalidJwtException("Jwt is empty");
+        }
+
+        if (log.isTraceEnabled()) {
             log.trace("JwtUtil::validateToken() -JWT details : " + " jwt.getSigningInput() = " + jwt.getSigningInput()
                     + " ,jwt.getEncodedSignature() = " + jwt.getEncodedSignature() + " ,jwt.getHeader().getKeyId() = "
                     + jwt.getHeader().getKeyId() + " ,jwt.getHeader().getSignatureAlgorithm() = "
-                    + jwt.getHeader().getSignatureAlgorithm()
-                    + " ,jwt.getClaims().getClaimAsString(JwtHeaderName.ALGORITHM) = "
-                    + jwt.getClaims().getClaimAsString(JwtHeaderName.ALGORITHM)
-                    + " ,jwt.getClaims().getClaimAsString(JwtHeaderName.ENCRYPTION_METHOD) = "
-                    + jwt.getClaims().getClaimAsString(JwtHeaderName.ENCRYPTION_METHOD) + ".");
-
-            final Date expiresAt = jwt.getClaims().getClaimAsDate(JwtClaimName.EXPIRATION_TIME);
-            String issuer = jwt.getClaims().getClaimAsString(JwtClaimName.ISSUER);
-            List<String> scopes = jwt.getClaims().getClaimAsStringList("scope");
-
-            log.debug("\n\n JwtUtil::validateToken() - expiresAt = " + expiresAt + " , issuer =" + issuer
-                    + " , scopes = " + scopes + "\n");
-
-            // Validate token is not expired
-            log.info("Validate JWT");
-            final Date now = new Date();
-            if (now.after(expiresAt)) {
-                log.error("ID Token is expired. (It is after " + now + ").");
-                throw new WebApplicationException("ID Token is expired",
-                        Response.status(Response.Status.UNAUTHORIZED).build());
-            }
+                    + jwt.getHeader().getSignatureAlgorithm() + ".");
+        }
 
-            // Validate issuer
-            log.info("Validate JWT Issuer");
-            if (!authUtil.isValidIssuer(issuer)) {
-                throw new WebApplicationException("Jwt Issuer is Invalid.",
-                        Response.status(Response.Status.UNAUTHORIZED).build());
-            }
+        final VerifiedToken verifiedToken = new VerifiedToken(jwt.getClaims().getClaimAsString(JwtClaimName.ISSUER),
+                jwt.getClaims().getClaimAsString("client_id"), jwt.getClaims().getClaimAsStringList("scope"),
+                jwt.getClaims().getClaimAsDate(JwtClaimName.EXPIRATION_TIME));
+        log.debug("JwtUtil::validateToken() - verifiedToken = {}", verifiedToken);
+
+        // Validate token is not expired
+        log.debug("Validate JWT");
+        if (verifiedToken.isExpired(System.currentTimeMillis())) {
+            log.error("ID Token is expired. (It is after " + verifiedToken.getExpiresAt() + ").");
+            throw new WebApplicationException("ID Token is expired",
+                    Response.status(Response.Status.UNAUTHORIZED).build());
+        }
 
-            // Retrieve JSON Web Key Set Uri
-            log.info("Retrieve JSON Web Key Set URI");
-            String jwksUri = this.getJwksUri(issuer);
-            log.trace("\n\n JwtUtil::validateToken() - jwksUri = " + jwksUri);
+        // Validate issuer
+        log.debug("Validate JWT Issuer");
+        if (!authUtil.isValidIssuer(verifiedToken.getIssuer())) {
+            throw new WebApplicationException("Jwt Issuer is Invalid.",
+                    Response.status(Response.Status.UNAUTHORIZED).build());
+        }
 
-            // Retrieve JSON Web Key Set
-            log.info("Retrieve JSON Web Key Set");
-            JSONWebKeySet jsonWebKeySet = this.getJSONWebKeys(jwksUri);
-            log.trace("\n\n JwtUtil::validateToken() - jsonWebKeySet = " + jsonWebKeySet);
+        // Retrieve JSON Web Key Set Uri
+        String jwksUri = this.getJwksUri(verifiedToken.getIssuer());
+        log.trace("\n\n JwtUtil::validateToken() - jwksUri = " + jwksUri);
 
-            // Verify the signature used to sign the access token
-            log.info("Verify JWT signature");
-            boolean isJwtSignatureValid = this.validateSignature(jwt, jsonWebKeySet);
-            log.debug("\n\n JwtUtil::validateToken() - isJwtSignatureValid = " + isJwtSignatureValid + "\n\n");
+        // Retrieve JSON Web Key Set
+        JSONWebKeySet jsonWebKeySet;
+        try (Timer.Context timerContext = phaseMetricsService.time(PhaseMetricsService.AUTH_JWKS)) {
+            jsonWebKeySet = this.getJSONWebKeys(jwksUri, jwt.getHeader().getKeyId());
+        }
 
-            if (!isJwtSignatureValid) {
-                throw new WebApplicationException("Jwt Signature is Invalid.",
-                        Response.status(Response.Status.UNAUTHORIZED).build());
+        // Verify the signature used to sign the access token
+        log.debug("Verify JWT signature");
+        boolean isJwtSignatureValid;
+        try (Timer.Context timerContext = phaseMetricsService.time(PhaseMetricsService.AUTH_SIGNATURE)) {
+            isJwtSignatureValid = this.validateSignature(jwt, jsonWebKeySet);
+        }
+        log.debug("JwtUtil::validateToken() - isJwtSignatureValid = {}", isJwtSignatureValid);
 
-            }
+        if (!isJwtSignatureValid) {
+            throw new WebApplicationException("Jwt Signature is Invalid.",
+                    Response.status(Response.Status.UNAUTHORIZED).build());
 
-            // Validate Scopes
-            log.info("Validate token scopes");
-            if (!authUtil.validateScope(scopes, resourceScopes)) {
-                log.error("Insufficient scopes. Required scope: " + resourceScopes + ", token scopes: " + scopes);
-                throw new WebApplicationException("Insufficient scopes. Required scope",
-                        Response.status(Response.Status.UNAUTHORIZED).build());
-            }
+        }
 
-        } catch (InvalidJwtException exp) {
-            log.error("Not a valid Jwt token = " + exp);
-            throw exp;
+        // Validate Scopes
+        log.debug("Validate token scopes");
+        if (!authUtil.validateScope(verifiedToken.getScopes(), resourceScopes)) {
+            log.error("Insufficient scopes. Required scope: " + resourceScopes + ", token scopes: "
+                    + verifiedToken.getScopes());
+            throw new WebApplicationException("Insufficient scopes. Required scope",
+                    Response.status(Response.Status.UNAUTHORIZED).build());
         }
 
+        return verifiedToken;
     }
 
     public boolean validateSignature(Jwt jwt, JSONWebKeySet jsonWebKeySet) {
-        log.trace("\n\n JwtUtil::validateSignature() - jwt = " + jwt + " , jsonWebKeySet =" + jsonWebKeySet + "\n");
+        log.trace("JwtUtil::validateSignature() - jwt = {} , jsonWebKeySet = {}", jwt, jsonWebKeySet);
         try {
 
             final String kid = jwt.getHeader().getClaimAsString(JwtHeaderName.KEY_ID);
@@ -152,22 +179,8 @@ public class JwtUtil {
             final SignatureAlgorithm signatureAlgorithm = jwt.getHeader().getSignatureAlgorithm();
             log.trace("\n\n JwtUtil::validateSignature() - kid = " + kid + " , algorithm =" + algorithm
                     + " signatureAlgorithm = " + signatureAlgorithm + "\n");
-            PublicKey publicKey = getPublicKey(kid, jsonWebKeySet, signatureAlgorithm);
-
-            log.trace("\n\n JwtUtil::validateSignature() - publicKey = " + publicKey + "\n");
-            if (publicKey == null) {
-                log.error("Failed to get RSA public key.");
-                return false;
-            }
-
-            // Validate
-            AbstractJwsSigner signer = null;
-            if (AlgorithmFamily.RSA.equals(signatureAlgorithm.getFamily())) {
-                signer = new RSASigner(SignatureAlgorithm.fromString(algorithm), (RSAPublicKey) publicKey);
-
-            } else if (AlgorithmFamily.EC.equals(signatureAlgorithm.getFamily())) {
-                signer = new ECDSASigner(SignatureAlgorithm.fromString(algorithm), (ECDSAPublicKey) publicKey);
-            }
+            AbstractJwsSigner signer = jwsSignerCache.getSigner(jsonWebKeySet, kid, algorithm,
+                    () -> createSigner(kid, jsonWebKeySet, signatureAlgorithm, algorithm));
 
             if (signer == null) {
                 log.error("ID Token signer is not found!");
@@ -189,6 +202,23 @@ public class JwtUtil {
         }
     }
 
+    private AbstractJwsSigner createSigner(String kid, JSONWebKeySet jsonWebKeySet,
+            SignatureAlgorithm signatureAlgorithm, String algorithm) {
+        PublicKey publicKey = getPublicKey(kid, jsonWebKeySet, signatureAlgorithm);
+        log.trace("\n\n JwtUtil::createSigner() - publicKey = " + publicKey + "\n");
+        if (publicKey == null || signatureAlgorithm == null) {
+            log.error("Failed to get public key of kid = " + kid);
+            return null;
+        }
+
+        if (AlgorithmFamily.RSA.equals(signatureAlgorithm.getFamily())) {
+            return new RSASigner(SignatureAlgorithm.fromString(algorithm), (RSAPublicKey) publicKey);
+        } else if (AlgorithmFamily.EC.equals(signatureAlgorithm.getFamily())) {
+            return new ECDSASigner(SignatureAlgorithm.fromString(algorithm), (ECDSAPublicKey) publicKey);
+        }
+        return null;
+    }
+
     public PublicKey getPublicKey(String kid, JSONWebKeySet jsonWebKeySet, SignatureAlgorithm signatureAlgorithm) {
         log.trace("\n\n JwtUtil::getPublicKey() - kid = " + kid + " , jsonWebKeySet =" + jsonWebKeySet
                 + " , signatureAlgorithm =  " + signatureAlgorithm + "\n");
@@ -216,16 +246,23 @@ public class JwtUtil {
 
     public String getJwksUri(String issuer) throws Exception {
         log.debug("JwtUtil::getJSONWebKeys() - issuer = " + issuer);
-        if (StringHelper.isNotEmpty(issuer) && issuer.equals(configurationService.find().getIssuer())) {
-            return configurationService.find().getJwksUri();
+        if (StringHelper.isNotEmpty(issuer) && issuer.equals(configurationService.getIssuer())) {
+            return configurationService.getJwksUri();
         }
-        return AuthClientFactory.getJwksUri(issuer);
+        return openIdConfigurationCache.getJwksUri(issuer);
 
     }
 
     public JSONWebKeySet getJSONWebKeys(String jwksUri) throws Exception {
         log.debug("\n\n JwtUtil::getJSONWebKeys() - jwksUri = " + jwksUri + " \n");
-        JSONWebKeySet jsonWebKeySet = AuthClientFactory.getJSONWebKeys(jwksUri);
+        JSONWebKeySet jsonWebKeySet = jwksCache.getJSONWebKeys(jwksUri);
+        log.trace("\n\n JwtUtil::getJSONWebKeys() - jsonWebKeySet = " + jsonWebKeySet + " \n");
+        return jsonWebKeySet;
+    }
+
+    public JSONWebKeySet getJSONWebKeys(String jwksUri, String kid) throws Exception {
+        log.debug("\n\n JwtUtil::getJSONWebKeys() - jwksUri = " + jwksUri + " , kid = " + kid + " \n");
+        JSONWebKeySet jsonWebKeySet = jwksCache.getJSONWebKeys(jwksUri, kid);
         log.trace("\n\n JwtUtil::getJSONWebKeys() - jsonWebKeySet = " + jsonWebKeySet + " \n");
         return jsonWebKeySet;
     }
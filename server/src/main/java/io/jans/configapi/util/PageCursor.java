@@ -0,0 +1,79 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.util;
+
+import io.jans.configapi.rest.model.PagedResponse;
+import io.jans.orm.PersistenceEntryManager;
+import io.jans.orm.model.PagedResult;
+import io.jans.orm.model.SortOrder;
+import io.jans.orm.search.filter.Filter;
+import io.jans.util.StringHelper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import javax.ws.rs.BadRequestException;
+
+/**
+ * Keyset pagination over a unique, sortable attribute (inum, jansId, ...).
+ * <p>
+ * The cursor handed to the caller is the URL-safe Base64 form of the sort key
+ * of the last entry returned; the next page is the entries whose key sorts
+ * after it. Unlike an offset, the cursor stays valid when entries are added or
+ * removed between two requests.
+ */
+public class PageCursor {
+
+    private PageCursor() {
+    }
+
+    public static String encode(String sortKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sortKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the sort key held by the cursor, or null for an empty cursor
+     * (first page).
+     */
+    public static String decode(String cursor) {
+        if (StringHelper.isEmpty(cursor)) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static <T> PagedResponse<T> findPage(PersistenceEntryManager persistenceEntryManager, String baseDn,
+            Class<T> entryClass, Filter filter, String[] returnAttributes, String sortBy, Function<T, String> sortKey,
+            String afterKey, int count) {
+        Filter pageFilter = filter;
+        if (afterKey != null) {
+            // No strict "greater than" in LDAP filters
+            Filter afterFilter = Filter.createANDFilter(Filter.createGreaterOrEqualFilter(sortBy, afterKey),
+                    Filter.createNOTFilter(Filter.createEqualityFilter(sortBy, afterKey)));
+            pageFilter = (filter == null ? afterFilter : Filter.createANDFilter(filter, afterFilter));
+        }
+
+        PagedResult<T> result = persistenceEntryManager.findPagedEntries(baseDn, entryClass, pageFilter,
+                ReturnAttributes.with(returnAttributes, sortBy), sortBy, SortOrder.ASCENDING, 0, count, count);
+        List<T> entries = result.getEntries();
+
+        String next = null;
+        if (!entries.isEmpty() && result.getTotalEntriesCount() > entries.size()) {
+            next = encode(sortKey.apply(entries.get(entries.size() - 1)));
+        }
+
+        // Past the first page the search only counts the entries after the cursor,
+        // and recounting them all on every page would cost a full scan
+        Integer totalEntriesCount = (afterKey == null ? Integer.valueOf(result.getTotalEntriesCount()) : null);
+        return new PagedResponse<>(entries, totalEntriesCount, next);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.util;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.jans.orm.annotation.AttributeName;
+import io.jans.util.StringHelper;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.ws.rs.BadRequestException;
+
+import org.apache.commons.lang.ArrayUtils;
+
+/**
+ * Translates the <code>fields</code> query parameter of the list and get
+ * endpoints into the persistence attributes to read.
+ * <p>
+ * A field may be given by its entry property name, its JSON name or its
+ * persistence attribute name, e.g. <code>clientName</code> or
+ * <code>displayName</code> for a client.
+ */
+public class ReturnAttributes {
+
+    private static final Map<Class<?>, Map<String, String>> ATTRIBUTES_BY_CLASS = new ConcurrentHashMap<>();
+
+    private ReturnAttributes() {
+    }
+
+    /**
+     * Returns the attributes backing the comma separated fields, or null (all
+     * attributes) when no field is given.
+     */
+    public static String[] resolve(Class<?> entryClass, String fields) {
+        if (StringHelper.isEmpty(fields)) {
+            return null;
+        }
+
+        Map<String, String> attributes = ATTRIBUTES_BY_CLASS.computeIfAbsent(entryClass,
+                ReturnAttributes::mapAttributes);
+        Set<String> returnAttributes = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            field = field.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            String attribute = attributes.get(field);
+            if (attribute == null) {
+                throw new BadRequestException("Unknown field: " + field);
+            }
+            returnAttributes.add(attribute);
+        }
+        return (returnAttributes.isEmpty() ? null : returnAttributes.toArray(new String[0]));
+    }
+
+    /**
+     * Adds the attribute to the projection, e.g. the sort key of a page.
+     */
+    public static String[] with(String[] returnAttributes, String attribute) {
+        if (returnAttributes == null || ArrayUtils.contains(returnAttributes, attribute)) {
+            return returnAttributes;
+        }
+        return (String[]) ArrayUtils.add(returnAttributes, attribute);
+    }
+
+    private static Map<String, String> mapAttributes(Class<?> entryClass) {
+        Map<String, String> attributes = new HashMap<>();
+        for (Class<?> type = entryClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                AttributeName attributeName = field.getAnnotation(AttributeName.class);
+                if (attributeName == null) {
+                    continue;
+                }
+                // Like the entry manager, an unnamed attribute takes the field name
+                String attribute = (StringHelper.isEmpty(attributeName.name()) ? field.getName()
+                        : attributeName.name());
+                attributes.putIfAbsent(attribute, attribute);
+                attributes.putIfAbsent(field.getName(), attribute);
+                JsonProperty jsonProperty = field.getAnnotation(JsonProperty.class);
+                if (jsonProperty != null && StringHelper.isNotEmpty(jsonProperty.value())) {
+                    attributes.putIfAbsent(jsonProperty.value(), attribute);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(attributes);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.security.api;
+
+import io.jans.as.persistence.model.Scope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResourceScopeIndexTest {
+
+    private static final List<Scope> READ = scopes("clients.readonly");
+    private static final List<Scope> WRITE = scopes("clients.write");
+    private static final List<Scope> DEFAULT_CLIENT = scopes("clients.default.readonly");
+
+    private final ResourceScopeIndex index = new ResourceScopeIndex();
+
+    @BeforeEach
+    public void build() {
+        index.rebuild(ResourceScopeIndex.newBuilder()
+                .add("/jans-config-api/api/v1/openid/clients", Arrays.asList("GET"), READ)
+                .add("/jans-config-api/api/v1/openid/clients/{inum}", Arrays.asList("GET"), READ)
+                .add("/jans-config-api/api/v1/openid/clients/{inum}", Arrays.asList("PUT", "DELETE"), WRITE)
+                .add("/jans-config-api/api/v1/openid/clients/default", Arrays.asList("GET"), DEFAULT_CLIENT));
+    }
+
+    @Test
+    public void literalPathMatches() {
+        assertEquals(READ, index.getScopes("GET", "/jans-config-api/api/v1/openid/clients"));
+    }
+
+    @Test
+    public void parameterMatchesAnySegment() {
+        assertEquals(READ, index.getScopes("GET", "/jans-config-api/api/v1/openid/clients/1234"));
+        assertEquals(WRITE, index.getScopes("DELETE", "/jans-config-api/api/v1/openid/clients/1234"));
+    }
+
+    @Test
+    public void literalTakesPrecedenceOverParameter() {
+        assertEquals(DEFAULT_CLIENT, index.getScopes("GET", "/jans-config-api/api/v1/openid/clients/default"));
+        // The literal resource wins for every method, it does not fall back to the parameter
+        assertNull(index.getScopes("PUT", "/jans-config-api/api/v1/openid/clients/default"));
+    }
+
+    @Test
+    public void methodIsCaseInsensitive() {
+        assertEquals(WRITE, index.getScopes("put", "/jans-config-api/api/v1/openid/clients/1234"));
+    }
+
+    @Test
+    public void repeatedAndTrailingSlashesAreIgnored() {
+        assertEquals(READ, index.getScopes("GET", "//jans-config-api/api/v1//openid/clients/"));
+    }
+
+    @Test
+    public void segmentMustMatchWhole() {
+        assertNull(index.getScopes("GET", "/jans-config-api/api/v1/openid/client"));
+        assertFalse(index.isProtectedPath("/jans-config-api/api/v1/openid/clientsx"));
+        assertFalse(index.isProtectedPath("/jans-config-api/api/v1/openid/clients/1234/extra"));
+    }
+
+    @Test
+    public void unknownMethodHasNoScopes() {
+        assertTrue(index.isProtectedPath("/jans-config-api/api/v1/openid/clients"));
+        assertNull(index.getScopes("POST", "/jans-config-api/api/v1/openid/clients"));
+    }
+
+    @Test
+    public void builderChangesAfterRebuildDoNotReachIndex() {
+        ResourceScopeIndex.Builder builder = ResourceScopeIndex.newBuilder()
+                .add("/jans-config-api/api/v1/scopes", Arrays.asList("GET"), READ);
+        index.rebuild(builder);
+        builder.add("/jans-config-api/api/v1/scopes", Arrays.asList("POST"), WRITE);
+        assertNull(index.getScopes("POST", "/jans-config-api/api/v1/scopes"));
+        assertFalse(index.isProtectedPath("/jans-config-api/api/v1/openid/clients"));
+    }
+
+    private static List<Scope> scopes(String id) {
+        Scope scope = new Scope();
+        scope.setId(id);
+        return Collections.singletonList(scope);
+    }
+}
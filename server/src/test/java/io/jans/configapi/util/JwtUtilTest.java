@@ -0,0 +1,70 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JwtUtilTest {
+
+    private static final String HEADER = encode("{\"alg\":\"RS256\",\"kid\":\"key-1\",\"typ\":\"JWT\"}");
+    private static final String PAYLOAD = encode("{\"iss\":\"https://jans.local\",\"exp\":1893456000}");
+    private static final String SIGNATURE = encode("signature");
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+
+    @Test
+    public void compactJwsIsJwt() {
+        assertTrue(jwtUtil.isJwt(HEADER + "." + PAYLOAD + "." + SIGNATURE));
+    }
+
+    @Test
+    public void unsignedJwtIsJwt() {
+        assertTrue(jwtUtil.isJwt(encode("{\"alg\":\"none\"}") + "." + PAYLOAD + "."));
+    }
+
+    @Test
+    public void referenceTokenIsNotJwt() {
+        assertFalse(jwtUtil.isJwt("0ea2ce99-b741-4f5a-8fd7-26f52d057c19"));
+    }
+
+    @Test
+    public void emptyTokenIsNotJwt() {
+        assertFalse(jwtUtil.isJwt(null));
+        assertFalse(jwtUtil.isJwt(""));
+    }
+
+    @Test
+    public void headerPrefixWithoutSegmentsIsNotJwt() {
+        assertFalse(jwtUtil.isJwt("eyJ0b2tlbiI6Im9wYXF1ZSJ9"));
+        assertFalse(jwtUtil.isJwt(HEADER + "." + PAYLOAD));
+    }
+
+    @Test
+    public void emptyPayloadIsNotJwt() {
+        assertFalse(jwtUtil.isJwt(HEADER + ".." + SIGNATURE));
+    }
+
+    @Test
+    public void jweIsNotJwt() {
+        assertFalse(jwtUtil.isJwt(HEADER + ".key.iv." + PAYLOAD + ".tag"));
+    }
+
+    @Test
+    public void nonJsonHeaderIsNotJwt() {
+        assertFalse(jwtUtil.isJwt(encode("header") + "." + PAYLOAD + "." + SIGNATURE));
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
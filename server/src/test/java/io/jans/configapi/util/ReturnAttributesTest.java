@@ -0,0 +1,78 @@
+/*
+ * Janssen Project software is available under the MIT License (2008). See http://opensource.org/licenses/MIT for full text.
+ *
+ * Copyright (c) 2020, Janssen Project
+ */
+
+package io.jans.configapi.util;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.jans.orm.annotation.AttributeName;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.BadRequestException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ReturnAttributesTest {
+
+    @Test
+    public void noFieldsReadsWholeEntries() {
+        assertNull(ReturnAttributes.resolve(Entry.class, null));
+        assertNull(ReturnAttributes.resolve(Entry.class, " , "));
+    }
+
+    @Test
+    public void fieldsResolveToAttributes() {
+        assertArrayEquals(new String[] { "inum", "displayName" },
+                ReturnAttributes.resolve(Entry.class, "inum, clientName"));
+        assertArrayEquals(new String[] { "displayName" }, ReturnAttributes.resolve(Entry.class, "displayName"));
+        assertArrayEquals(new String[] { "displayName" }, ReturnAttributes.resolve(Entry.class, "name"));
+    }
+
+    @Test
+    public void unnamedAttributeUsesFieldName() {
+        assertArrayEquals(new String[] { "description" }, ReturnAttributes.resolve(Entry.class, "description"));
+    }
+
+    @Test
+    public void inheritedFieldsResolve() {
+        assertArrayEquals(new String[] { "jansId" }, ReturnAttributes.resolve(ChildEntry.class, "id"));
+    }
+
+    @Test
+    public void unknownFieldIsRejected() {
+        assertThrows(BadRequestException.class, () -> ReturnAttributes.resolve(Entry.class, "inum,secret"));
+    }
+
+    @Test
+    public void withAddsMissingAttributeOnly() {
+        assertNull(ReturnAttributes.with(null, "inum"));
+        assertArrayEquals(new String[] { "inum" }, ReturnAttributes.with(new String[] { "inum" }, "inum"));
+        assertArrayEquals(new String[] { "displayName", "inum" },
+                ReturnAttributes.with(new String[] { "displayName" }, "inum"));
+    }
+
+    static class Entry {
+
+        @AttributeName(name = "jansId")
+        private String id;
+
+        @AttributeName(name = "inum")
+        private String inum;
+
+        @AttributeName(name = "displayName")
+        @JsonProperty("name")
+        private String clientName;
+
+        @AttributeName
+        private String description;
+
+        private String secret;
+    }
+
+    static class ChildEntry extends Entry {
+    }
+}
@@ -0,0 +1,94 @@
+Feature: Openid connect clients in bulk
+
+    Background:
+    * def mainUrl = openidclients_url + '/bulk'
+    * def client = read('client.json')
+
+Scenario: Create openid connect clients in bulk without bearer token
+Given url mainUrl
+And request [#(client)]
+When method POST
+Then status 401
+
+
+Scenario: Bulk create rejects a client without display name and writes nothing
+* def unnamed = karate.merge(client, { clientName: null, displayName: null })
+Given url mainUrl
+And header Authorization = 'Bearer ' + accessToken
+And request [#(client), #(unnamed)]
+When method POST
+Then status 400
+And print response
+And match response == '#[1]'
+And match response[0].index == 1
+And match response[0].status == 400
+
+
+Scenario: Bulk create rejects an inum repeated in the request
+* def first = karate.merge(client, { inum: 'bulk-test-duplicate' })
+* def second = karate.merge(client, { inum: 'bulk-test-duplicate' })
+Given url mainUrl
+And header Authorization = 'Bearer ' + accessToken
+And request [#(first), #(second)]
+When method POST
+Then status 400
+And print response
+And match response[0].index == 1
+And match response[0].status == 409
+Given url openidclients_url + '/bulk-test-duplicate'
+And header Authorization = 'Bearer ' + accessToken
+When method GET
+Then status 404
+
+
+Scenario: Bulk update rejects an unknown client
+* def unknown = karate.merge(client, { inum: 'bulk-test-unknown' })
+Given url mainUrl
+And header Authorization = 'Bearer ' + accessToken
+And request [#(unknown)]
+When method PUT
+Then status 400
+And print response
+And match response[0].status == 404
+
+
+@CreateUpdateDelete
+Scenario: Create, update and delete openid connect clients in bulk
+* def explicit = karate.merge(client, { inum: 'bulk-test-explicit' })
+Given url mainUrl
+And header Authorization = 'Bearer ' + accessToken
+And request [#(explicit), #(client)]
+When method POST
+Then status 200
+And print response
+And match each response contains { status: 201 }
+And match response[0].id == 'bulk-test-explicit'
+And match response[1].id != 'bulk-test-explicit'
+* def inums = [ '#(response[0].id)', '#(response[1].id)' ]
+Given url openidclients_url + '/' + inums[1]
+And header Authorization = 'Bearer ' + accessToken
+When method GET
+Then status 200
+Then def generated = response
+Then set generated.displayName = 'UpdatedBulkTestClient'
+Given url mainUrl
+And header Authorization = 'Bearer ' + accessToken
+And request [#(generated)]
+When method PUT
+Then status 200
+And match response[0].status == 200
+Given url openidclients_url + '/' + inums[1]
+And header Authorization = 'Bearer ' + accessToken
+When method GET
+Then status 200
+And match response.displayName == 'UpdatedBulkTestClient'
+Given url mainUrl
+And header Authorization = 'Bearer ' + accessToken
+And request inums
+When method DELETE
+Then status 200
+And match each response contains { status: 204 }
+Given url openidclients_url + '/' + inums[0]
+And header Authorization = 'Bearer ' + accessToken
+When method GET
+Then status 404
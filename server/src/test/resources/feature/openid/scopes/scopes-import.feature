@@ -0,0 +1,102 @@
+Feature: Openid connect scopes import
+
+    Background:
+    * def mainUrl = scopes_url + '/import'
+    * def scope = read('scope.json')
+
+Scenario: Import scopes without bearer token
+Given url mainUrl
+And request [#(scope)]
+When method POST
+Then status 401
+
+
+Scenario: Import rejects a scope id repeated in the payload
+* def first = karate.merge(scope, { id: 'import-test-duplicate' })
+* def second = karate.merge(scope, { id: 'import-test-duplicate' })
+Given url mainUrl
+And header Authorization = 'Bearer ' + accessToken
+And param dryRun = true
+And request [#(first), #(second)]
+When method POST
+Then status 400
+And print response
+And match response == '#[1]'
+And match response[0].index == 1
+And match response[0].status == 409
+
+
+Scenario: Import rejects a new scope reusing the id of a stored one
+Given url scopes_url
+And header Authorization = 'Bearer ' + accessToken
+And param limit = 1
+When method GET
+Then status 200
+* def existing = karate.merge(scope, { id: '#(response[0].id)' })
+Given url mainUrl
+And header Authorization = 'Bearer ' + accessToken
+And param dryRun = true
+And request [#(existing)]
+When method POST
+Then status 400
+And print response
+And match response[0].status == 409
+
+
+Scenario: Import rejects a scope without id
+* def unnamed = karate.merge(scope, { id: null })
+Given url mainUrl
+And header Authorization = 'Bearer ' + accessToken
+And request [#(unnamed)]
+When method POST
+Then status 400
+And match response[0].status == 400
+
+
+Scenario: Dry run of an import writes nothing
+* def created = karate.merge(scope, { id: 'import-test-dry-run' })
+Given url mainUrl
+And header Authorization = 'Bearer ' + accessToken
+And param dryRun = true
+And request [#(created)]
+When method POST
+Then status 200
+And print response
+And match response[0].status == 201
+And match response[0].action == 'create'
+Given url scopes_url
+And header Authorization = 'Bearer ' + accessToken
+And param pattern = 'import-test-dry-run'
+When method GET
+Then status 200
+And match response == '#[0]'
+
+
+@CreateUpdateDelete
+Scenario: Import creates, then reports an exported scope as unchanged
+* def created = karate.merge(scope, { id: 'import-test-round-trip' })
+Given url mainUrl
+And header Authorization = 'Bearer ' + accessToken
+And request [#(created)]
+When method POST
+Then status 200
+And match response[0].status == 201
+* def inum = response[0].id
+Given url scopes_url + '/' + inum
+And header Authorization = 'Bearer ' + accessToken
+When method GET
+Then status 200
+And match response.displayName == 'import-test-round-trip'
+Then def stored = response
+Given url mainUrl
+And header Authorization = 'Bearer ' + accessToken
+And param dryRun = true
+And request [#(stored)]
+When method POST
+Then status 200
+And print response
+And match response[0].action == 'unchanged'
+Given url scopes_url + '/' + inum
+And header Authorization = 'Bearer ' + accessToken
+When method DELETE
+Then status 204
@@ -0,0 +1,52 @@
+Feature: Openid connect scopes cursor paging
+
+	Background:
+	* def mainUrl = scopes_url
+	* def getLink = function(){ var headers = karate.get('responseHeaders'); for (var name in headers) { if (name.toLowerCase() == 'link') return headers[name][0]; } return null; }
+
+	Scenario: Page through scopes following the next cursor
+	Given url mainUrl
+	And header Authorization = 'Bearer ' + accessToken
+	And param cursor = ''
+	And param limit = 1
+	When method GET
+	Then status 200
+	And print response
+	And match response.entries == '#[1]'
+	And match response.totalEntriesCount == '#number'
+	And assert response.totalEntriesCount > 1
+	And match response.next == '#string'
+	And def first = response.entries[0]
+	And def next = response.next
+	And def link = getLink()
+	And assert link != null
+	And assert link.indexOf('rel="next"') >= 0
+	And assert link.indexOf('cursor=' + next) >= 0
+	Given url mainUrl
+	And header Authorization = 'Bearer ' + accessToken
+	And param cursor = next
+	And param limit = 1
+	When method GET
+	Then status 200
+	And print response
+	And match response.entries == '#[1]'
+	And match response.entries[0].inum != first.inum
+	And match response.totalEntriesCount == '#notpresent'
+
+
+	Scenario: Paging rejects a limit that is not positive
+	Given url mainUrl
+	And header Authorization = 'Bearer ' + accessToken
+	And param cursor = ''
+	And param limit = 0
+	When method GET
+	Then status 400
+
+
+	Scenario: Paging rejects an invalid cursor
+	Given url mainUrl
+	And header Authorization = 'Bearer ' + accessToken
+	And param cursor = '%%%'
+	And param limit = 1
+	When method GET
+	Then status 400
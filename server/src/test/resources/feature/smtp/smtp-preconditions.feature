@@ -0,0 +1,76 @@
+Feature: SMTP configuration ETag and preconditions
+
+	Background:
+	* def mainUrl = smtp_url
+	* def getEtag = function(){ var headers = karate.get('responseHeaders'); for (var name in headers) { if (name.toLowerCase() == 'etag') return headers[name][0]; } return null; }
+
+	Scenario: Get SMTP configuration with If-None-Match
+	Given url mainUrl
+	And header Authorization = 'Bearer ' + accessToken
+	When method GET
+	Then status 200
+	And def etag = getEtag()
+	And print etag
+	And assert etag != null
+	Given url mainUrl
+	And header Authorization = 'Bearer ' + accessToken
+	And header If-None-Match = etag
+	When method GET
+	Then status 304
+	And match response == ''
+	Given url mainUrl
+	And header Authorization = 'Bearer ' + accessToken
+	And header If-None-Match = '"stale"'
+	When method GET
+	Then status 200
+
+
+	Scenario: Update SMTP configuration with a stale If-Match
+	Given url mainUrl
+	And header Authorization = 'Bearer ' + accessToken
+	When method GET
+	Then status 200
+	And def smtpConf = response
+	Given url mainUrl
+	And header Authorization = 'Bearer ' + accessToken
+	And header If-Match = '"stale"'
+	And request smtpConf
+	When method PUT
+	Then status 412
+
+
+	@CreateGetUpdateDelete
+	Scenario: Update SMTP configuration with the current If-Match
+	Given url mainUrl
+	And header Authorization = 'Bearer ' + accessToken
+	When method GET
+	Then status 200
+	And def smtpConf = response
+	And def etag = getEtag()
+	Given url mainUrl
+	And header Authorization = 'Bearer ' + accessToken
+	And header If-Match = etag
+	And request smtpConf
+	When method PUT
+	Then status 200
+	And def updatedEtag = getEtag()
+	And assert updatedEtag != null
+	Given url mainUrl
+	And header Authorization = 'Bearer ' + accessToken
+	And header If-None-Match = updatedEtag
+	When method GET
+	Then status 304
+
+
+	Scenario: Database configuration lists answer If-None-Match
+	Given url ldapUrl
+	And header Authorization = 'Bearer ' + accessToken
+	When method GET
+	Then status 200
+	And def etag = getEtag()
+	And assert etag != null
+	Given url ldapUrl
+	And header Authorization = 'Bearer ' + accessToken
+	And header If-None-Match = etag
+	When method GET
+	Then status 304